@@ -0,0 +1,136 @@
+package com.studentlife.scoreboard.service;
+
+import com.studentlife.scoreboard.entity.Category;
+import com.studentlife.scoreboard.entity.User;
+import com.studentlife.scoreboard.repository.DailyCategoryTotalRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the dashboard analytics in {@link HabitEntryService}, which are computed
+ * from the cached trailing window of daily totals.
+ * The services are wired by hand around a stub rollup repository, so only the in-memory
+ * aggregation is measured. The stub returns one row per synthetic entry instead of one per
+ * (day, category), which makes loading a window scale with the entry count.
+ *
+ * Run with: mvn -Pbenchmarks test-compile exec:exec
+ * (JMH options through -Djmh.args, e.g. -Djmh.args="-prof gc AnalyticsBenchmark.balanceScore")
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyticsBenchmark {
+
+    private static final String[] CATEGORY_NAMES = {
+            "STUDY", "EXERCISE", "NAP", "NUTRITION", "SOCIAL", "MINDFULNESS", "CREATIVE", "READING", "OTHER"
+    };
+
+    // Share of entries per category, in CATEGORY_NAMES order; study and exercise dominate
+    private static final int[] CATEGORY_WEIGHTS = {30, 20, 8, 10, 10, 7, 5, 7, 3};
+
+    private static final int WINDOW_DAYS = 8;
+
+    @Param({"10", "1000", "100000"})
+    private int entries;
+
+    private HabitEntryService habitEntryService;
+
+    private StatsWindowCache statsWindowCache;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORY_NAMES.length; i++) {
+            Category category = new Category(CATEGORY_NAMES[i], CATEGORY_NAMES[i].charAt(0)
+                    + CATEGORY_NAMES[i].substring(1).toLowerCase());
+            category.setId(i + 1L);
+            categories.add(category);
+        }
+        CategoryRegistry categoryRegistry = new CategoryRegistry();
+        ReflectionTestUtils.setField(categoryRegistry, "snapshot", new CategoryRegistry.Snapshot(categories));
+
+        List<Object[]> rows = syntheticRows(LocalDate.now(), new Random(42));
+        DailyCategoryTotalRepository repository = (DailyCategoryTotalRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{DailyCategoryTotalRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findMinutesByUserAndDateRange")) {
+                        return rows;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        statsWindowCache = new StatsWindowCache();
+        ReflectionTestUtils.setField(statsWindowCache, "days", WINDOW_DAYS);
+        ReflectionTestUtils.setField(statsWindowCache, "maxUsers", 10000);
+        ReflectionTestUtils.setField(statsWindowCache, "dailyCategoryTotalRepository", repository);
+        ReflectionTestUtils.setField(statsWindowCache, "categoryRegistry", categoryRegistry);
+        statsWindowCache.init();
+
+        habitEntryService = new HabitEntryService();
+        ReflectionTestUtils.setField(habitEntryService, "statsWindowCache", statsWindowCache);
+        ReflectionTestUtils.setField(habitEntryService, "categoryRegistry", categoryRegistry);
+
+        user = new User("benchmark", "secret1");
+        user.setId(1L);
+    }
+
+    // (date, categoryId, minutes) rows over the window, weighted by category, 5 to 120 minutes each
+    private List<Object[]> syntheticRows(LocalDate today, Random random) {
+        int weightSum = 0;
+        for (int weight : CATEGORY_WEIGHTS) {
+            weightSum += weight;
+        }
+        List<Object[]> rows = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            int pick = random.nextInt(weightSum);
+            int category = 0;
+            while (pick >= CATEGORY_WEIGHTS[category]) {
+                pick -= CATEGORY_WEIGHTS[category];
+                category++;
+            }
+            LocalDate date = today.minusDays(random.nextInt(WINDOW_DAYS));
+            rows.add(new Object[]{date, category + 1L, 5 + random.nextInt(116)});
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public Map<String, Integer> pointsByTypeForWeek() {
+        return habitEntryService.getPointsByTypeForWeek(user);
+    }
+
+    @Benchmark
+    public Integer balanceScore() {
+        return habitEntryService.calculateBalanceScore(user);
+    }
+
+    // Every call misses the cache and folds all rows into a new window
+    @Benchmark
+    public Map<String, Integer> pointsByTypeForWeekUncached() {
+        statsWindowCache.invalidateAll();
+        return habitEntryService.getPointsByTypeForWeek(user);
+    }
+}
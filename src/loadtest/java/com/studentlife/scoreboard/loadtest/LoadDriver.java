@@ -0,0 +1,325 @@
+package com.studentlife.scoreboard.loadtest;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load driver for the web tier.
+ * Each virtual user logs in through the /login form as one of the accounts written by
+ * --generate-data, then replays a weighted mix of page views and entry uploads until the
+ * run ends. Requests made during the warmup are not reported.
+ *
+ * Run against a started instance with: mvn -Ploadtest test-compile exec:exec
+ * Options through -Dloadtest.args, e.g. -Dloadtest.args="--users=50 --duration=PT5M --mix=dashboard:50,stats:50"
+ *   --base-url=http://localhost:8080  --users=20 (virtual users)  --accounts=50
+ *   --user-prefix=loaduser  --password=loadtest1  --duration=PT2M  --warmup=PT15S  --think-time=PT0S
+ *   --mix=dashboard:35,entries:20,entries-filtered:15,create:10,stats:20
+ */
+public class LoadDriver {
+
+    private static final Pattern CATEGORY_OPTION = Pattern.compile("<option value=\"(\\d+)\"");
+
+    private static final String[] STATS_RANGES = {"week", "month", "semester", "year"};
+
+    // Distinct images cycled through by uploads, so both new and deduplicated files are exercised
+    private static final int IMAGE_COUNT = 20;
+
+    private final Map<String, String> options;
+    private final String baseUrl;
+    private final Map<String, Integer> mix;
+    private final int mixTotal;
+    private final List<byte[]> images = new ArrayList<>();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    private volatile boolean recording;
+
+    LoadDriver(Map<String, String> options) {
+        this.options = options;
+        this.baseUrl = option("base-url", "http://localhost:8080").replaceAll("/$", "");
+        this.mix = new LinkedHashMap<>();
+        int total = 0;
+        for (String part : option("mix", "dashboard:35,entries:20,entries-filtered:15,create:10,stats:20").split(",")) {
+            String[] pair = part.split(":");
+            int weight = Integer.parseInt(pair[1].trim());
+            mix.put(pair[0].trim(), weight);
+            total += weight;
+        }
+        this.mixTotal = total;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+        }
+        new LoadDriver(options).run();
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    void run() throws Exception {
+        int users = Integer.parseInt(option("users", "20"));
+        int accounts = Integer.parseInt(option("accounts", "50"));
+        Duration duration = Duration.parse(option("duration", "PT2M"));
+        Duration warmup = Duration.parse(option("warmup", "PT15S"));
+        Duration thinkTime = Duration.parse(option("think-time", "PT0S"));
+        for (String operation : mix.keySet()) {
+            timers.put(operation, Timer.builder("loadtest.request")
+                    .tag("operation", operation)
+                    .publishPercentiles(0.5, 0.9, 0.95, 0.99)
+                    .percentilePrecision(2)
+                    // Keep every sample of the run in the percentiles rather than a rolling window
+                    .distributionStatisticExpiry(duration.plus(warmup).plusMinutes(1))
+                    .distributionStatisticBufferLength(1)
+                    .register(registry));
+            errors.put(operation, new AtomicLong());
+        }
+        for (int i = 0; i < IMAGE_COUNT; i++) {
+            images.add(image(i));
+        }
+
+        System.out.println("Driving " + baseUrl + " with " + users + " users for " + duration + " after " + warmup + " warmup");
+        long startNanos = System.nanoTime();
+        long recordFrom = startNanos + warmup.toNanos();
+        long endNanos = recordFrom + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(users);
+        for (int i = 0; i < users; i++) {
+            String username = String.format("%s%04d", option("user-prefix", "loaduser"), i % accounts + 1);
+            long userSeed = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    new VirtualUser(username, new Random(userSeed)).run(endNanos, thinkTime);
+                } catch (Exception e) {
+                    System.err.println(username + " stopped: " + e);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + username);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, recordFrom - System.nanoTime()));
+        recording = true;
+        done.await();
+        report(Duration.ofNanos(System.nanoTime() - recordFrom));
+    }
+
+    private void report(Duration measured) {
+        double seconds = measured.toMillis() / 1000.0;
+        System.out.println();
+        System.out.printf("%-18s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms");
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (String operation : mix.keySet()) {
+            Timer timer = timers.get(operation);
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            double[] percentiles = new double[4];
+            ValueAtPercentile[] values = snapshot.percentileValues();
+            for (int i = 0; i < values.length && i < percentiles.length; i++) {
+                percentiles[i] = values[i].value(TimeUnit.MILLISECONDS);
+            }
+            long count = snapshot.count();
+            long failed = errors.get(operation).get();
+            totalRequests += count;
+            totalErrors += failed;
+            System.out.printf("%-18s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", operation, count, failed,
+                    count / seconds, percentiles[0], percentiles[1], percentiles[2], percentiles[3],
+                    snapshot.max(TimeUnit.MILLISECONDS));
+        }
+        System.out.printf("%-18s %9d %7d %9.1f%n", "total", totalRequests, totalErrors, totalRequests / seconds);
+    }
+
+    private String pickOperation(Random random) {
+        int pick = random.nextInt(mixTotal);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    private static byte[] image(int variant) throws IOException {
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        Random random = new Random(variant);
+        for (int i = 0; i < 40; i++) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            graphics.fillRect(random.nextInt(800), random.nextInt(600), 20 + random.nextInt(200), 20 + random.nextInt(200));
+        }
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private class VirtualUser {
+
+        private final String username;
+        private final Random random;
+        private final HttpClient client;
+        private final List<String> categoryIds = new ArrayList<>();
+
+        VirtualUser(String username, Random random) {
+            this.username = username;
+            this.random = random;
+            this.client = HttpClient.newBuilder()
+                    .cookieHandler(new CookieManager())
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+        }
+
+        void run(long endNanos, Duration thinkTime) throws Exception {
+            login();
+            Matcher options = CATEGORY_OPTION.matcher(send(get("/entries/new")).body());
+            while (options.find()) {
+                categoryIds.add(options.group(1));
+            }
+            if (categoryIds.isEmpty()) {
+                throw new IllegalStateException("No categories on /entries/new");
+            }
+
+            while (System.nanoTime() < endNanos) {
+                String operation = pickOperation(random);
+                HttpRequest request = request(operation);
+                long start = System.nanoTime();
+                boolean ok;
+                try {
+                    HttpResponse<String> response = send(request);
+                    ok = operation.equals("create")
+                            ? response.statusCode() == 302 && response.headers().firstValue("Location").orElse("").endsWith("/entries")
+                            : response.statusCode() == 200;
+                } catch (IOException e) {
+                    ok = false;
+                }
+                long elapsed = System.nanoTime() - start;
+                if (recording) {
+                    timers.get(operation).record(elapsed, TimeUnit.NANOSECONDS);
+                    if (!ok) {
+                        errors.get(operation).incrementAndGet();
+                    }
+                }
+                if (!thinkTime.isZero()) {
+                    Thread.sleep(thinkTime.toMillis());
+                }
+            }
+        }
+
+        private void login() throws Exception {
+            String form = "username=" + encode(username) + "&password=" + encode(option("password", "loadtest1"));
+            HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form))
+                    .build());
+            if (response.statusCode() != 302 || response.headers().firstValue("Location").orElse("").contains("error")) {
+                throw new IllegalStateException("Login failed for " + username + " (status " + response.statusCode() + ")");
+            }
+        }
+
+        private HttpRequest request(String operation) {
+            switch (operation) {
+                case "dashboard":
+                    return get("/dashboard");
+                case "entries":
+                    return get("/entries");
+                case "entries-filtered": {
+                    LocalDate end = LocalDate.now().minusDays(random.nextInt(180));
+                    LocalDate start = end.minusDays(7 + random.nextInt(90));
+                    String category = random.nextBoolean()
+                            ? "&categoryId=" + categoryIds.get(random.nextInt(categoryIds.size())) : "";
+                    return get("/entries?startDate=" + start + "&endDate=" + end + category);
+                }
+                case "stats":
+                    return get("/stats?range=" + STATS_RANGES[random.nextInt(STATS_RANGES.length)]);
+                case "create":
+                    return createEntry();
+                default:
+                    throw new IllegalArgumentException("Unknown operation in mix: " + operation);
+            }
+        }
+
+        private HttpRequest createEntry() {
+            String boundary = "----load" + UUID.randomUUID();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            field(body, boundary, "categoryId", categoryIds.get(random.nextInt(categoryIds.size())));
+            field(body, boundary, "description", "Load test entry");
+            field(body, boundary, "date", LocalDate.now().minusDays(random.nextInt(7)).toString());
+            field(body, boundary, "duration", String.valueOf(5 + random.nextInt(120)));
+            field(body, boundary, "score", String.valueOf(1 + random.nextInt(10)));
+            if (random.nextInt(3) > 0) {
+                write(body, "--" + boundary + "\r\nContent-Disposition: form-data; name=\"image\"; filename=\"photo.jpg\"\r\n" +
+                        "Content-Type: image/jpeg\r\n\r\n");
+                body.writeBytes(images.get(random.nextInt(images.size())));
+                write(body, "\r\n");
+            }
+            write(body, "--" + boundary + "--\r\n");
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/entries"))
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                    .build();
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        }
+
+        private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+    }
+
+    private static void field(ByteArrayOutputStream body, String boundary, String name, String value) {
+        write(body, "--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n");
+    }
+
+    private static void write(ByteArrayOutputStream body, String text) {
+        body.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -2,12 +2,37 @@ package com.studentlife.scoreboard;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ApplicationListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ScoreboardApplication {
 
+    // Startup steps kept for the timeline report and the actuator startup endpoint
+    private static final int STARTUP_STEP_CAPACITY = 10000;
+
     public static void main(String[] args) {
-        SpringApplication.run(ScoreboardApplication.class, args);
+        SpringApplication application = new SpringApplication(ScoreboardApplication.class);
+        application.addListeners(new StartupRecording());
+        application.run(args);
+    }
+
+    /**
+     * Buffers startup steps only when app.startup.report=true, so a normal startup does not pay for
+     * recording them. The property is read once the environment (including profiles) is prepared,
+     * which is before the application context that records the steps is created.
+     */
+    public static class StartupRecording implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+        @Override
+        public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+            if (event.getEnvironment().getProperty("app.startup.report", Boolean.class, false)) {
+                event.getSpringApplication().setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+            }
+        }
     }
 
 }
@@ -0,0 +1,34 @@
+package com.studentlife.scoreboard.component;
+
+import com.studentlife.scoreboard.service.DailyTotalsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the user_daily_category_totals rollup from habit_entries on demand.
+ * Runs only when the application is started with --rebuild-daily-totals,
+ * after DataMigrationComponent has applied pending data migrations.
+ */
+@Component
+@Order(10)
+public class DailyTotalsRebuildRunner implements ApplicationRunner {
+
+    public static final String REBUILD_OPTION = "rebuild-daily-totals";
+
+    @Autowired
+    private DailyTotalsService dailyTotalsService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(REBUILD_OPTION)) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int rows = dailyTotalsService.rebuildAll();
+        System.out.println("Rebuilt daily totals: " + rows + " rows in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -1,73 +1,186 @@
 package com.studentlife.scoreboard.component;
 
-import com.studentlife.scoreboard.entity.Category;
-import com.studentlife.scoreboard.entity.HabitEntry;
-import com.studentlife.scoreboard.repository.CategoryRepository;
-import com.studentlife.scoreboard.repository.HabitEntryRepository;
+import com.studentlife.scoreboard.entity.DataMigrationRecord;
+import com.studentlife.scoreboard.migration.ChunkedMigration;
+import com.studentlife.scoreboard.migration.DataMigration;
+import com.studentlife.scoreboard.migration.SetBasedMigration;
+import com.studentlife.scoreboard.repository.DataMigrationRecordRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Arrays;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Runs pending data migrations at startup, in version order.
+ * Each migration is recorded in the data_migrations ledger and runs only once; a chunked
+ * migration checkpoints its progress after every chunk and resumes from there after a crash.
+ * With app.migrations.async=true they run on a background thread behind the MigrationGate,
+ * so the web server can start without waiting for them.
+ */
 @Component
+@Order(1)
 public class DataMigrationComponent implements CommandLineRunner {
-    
+
+    // Interval between progress lines while a chunked migration runs
+    private static final long PROGRESS_INTERVAL_MILLIS = 5000;
+
+    // Resolved on first use so that, when running in the background, JPA is not needed to start the runner
+    @Lazy
+    @Autowired
+    private List<DataMigration> migrations;
+
+    @Lazy
+    @Autowired
+    private DataMigrationRecordRepository dataMigrationRecordRepository;
+
+    @Lazy
     @Autowired
-    private CategoryRepository categoryRepository;
-    
+    private TransactionTemplate transactionTemplate;
+
     @Autowired
-    private HabitEntryRepository habitEntryRepository;
-    
+    private MigrationGate migrationGate;
+
+    // Run migrations on a background thread instead of blocking startup
+    @Value("${app.migrations.async:false}")
+    private boolean async;
+
+    // Rows per transaction for chunked migrations
+    @Value("${app.migrations.chunk-size:1000}")
+    private int chunkSize;
+
     @Override
     public void run(String... args) throws Exception {
+        if (!async) {
+            runPendingMigrations();
+            return;
+        }
+
+        Thread thread = new Thread(this::runPendingMigrations, "data-migrations");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Runs every migration not yet completed, then opens the gate whether or not they succeeded
+    private void runPendingMigrations() {
         try {
-            seedDefaultCategories();
-            migrateExistingData();
+            runMigrations();
         } catch (Exception e) {
             System.err.println("Error during data migration: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            migrationGate.markReady();
         }
     }
-    
-    private void seedDefaultCategories() {
-        List<String[]> defaultCategories = Arrays.asList(
-            new String[]{"STUDY", "Study"},
-            new String[]{"EXERCISE", "Exercise"},
-            new String[]{"NAP", "Nap"},
-            new String[]{"NUTRITION", "Nutrition"},
-            new String[]{"SOCIAL", "Social"},
-            new String[]{"MINDFULNESS", "Mindfulness"},
-            new String[]{"CREATIVE", "Creative"},
-            new String[]{"READING", "Reading"},
-            new String[]{"OTHER", "Other"}
-        );
-        
-        for (String[] catData : defaultCategories) {
-            if (categoryRepository.findByName(catData[0]).isEmpty()) {
-                Category category = new Category(catData[0], catData[1]);
-                categoryRepository.save(category);
+
+    private void runMigrations() {
+        long start = System.currentTimeMillis();
+        List<DataMigration> ordered = new ArrayList<>(migrations);
+        ordered.sort(Comparator.comparingInt(DataMigration::getVersion));
+
+        // One query for the whole ledger
+        Map<Integer, DataMigrationRecord> ledger = new HashMap<>();
+        for (DataMigrationRecord record : dataMigrationRecordRepository.findAll()) {
+            ledger.put(record.getVersion(), record);
+        }
+
+        for (DataMigration migration : ordered) {
+            DataMigrationRecord record = ledger.get(migration.getVersion());
+            if (record != null && record.getStatus() == DataMigrationRecord.Status.COMPLETED) {
+                continue;
+            }
+
+            try {
+                runMigration(migration, record);
+            } catch (Exception e) {
+                // Later migrations may depend on this one, so stop here; it is retried on next startup
+                System.err.println("Error during data migration " + migration.getVersion() + " (" +
+                        migration.getDescription() + "): " + e.getMessage());
+                e.printStackTrace();
+                return;
             }
         }
+        System.out.println("Data migrations finished in " + (System.currentTimeMillis() - start) + " ms");
     }
-    
-    private void migrateExistingData() {
-        try {
-            List<HabitEntry> entries = habitEntryRepository.findAll();
-            
-            for (HabitEntry entry : entries) {
-                try {
-                    if (entry.getCategory() == null) {
-                        categoryRepository.findByName("STUDY").ifPresent(entry::setCategory);
-                        habitEntryRepository.save(entry);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error migrating entry " + entry.getId() + ": " + e.getMessage());
+
+    private void runMigration(DataMigration migration, DataMigrationRecord existing) {
+        DataMigrationRecord record = existing != null
+                ? existing
+                : new DataMigrationRecord(migration.getVersion(), migration.getDescription());
+        long startRows = record.getRowsProcessed();
+        long start = System.currentTimeMillis();
+
+        if (migration instanceof SetBasedMigration setBased) {
+            System.out.println("Running data migration " + migration.getVersion() + ": " + migration.getDescription());
+            // The change and its ledger entry commit together
+            transactionTemplate.executeWithoutResult(status -> {
+                long rows = setBased.apply();
+                record.setRowsProcessed(record.getRowsProcessed() + rows);
+                complete(record);
+            });
+        } else if (migration instanceof ChunkedMigration chunked) {
+            long afterId = record.getCheckpoint() != null ? record.getCheckpoint() : 0L;
+            System.out.println("Running data migration " + migration.getVersion() + ": " + migration.getDescription() +
+                    (afterId > 0 ? " (resuming after id " + afterId + ")" : ""));
+            if (existing == null) {
+                dataMigrationRecordRepository.save(record);
+            }
+            runChunks(chunked, record, start);
+        } else {
+            throw new IllegalStateException("Unsupported migration type: " + migration.getClass().getName());
+        }
+
+        logProgress("Completed", migration, record.getRowsProcessed() - startRows, start);
+    }
+
+    private void runChunks(ChunkedMigration migration, DataMigrationRecord record, long start) {
+        long startRows = record.getRowsProcessed();
+        long lastLog = start;
+
+        while (true) {
+            long afterId = record.getCheckpoint() != null ? record.getCheckpoint() : 0L;
+            // Each chunk and its checkpoint commit together
+            boolean done = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                ChunkedMigration.Chunk chunk = migration.migrateChunk(afterId, chunkSize);
+                if (chunk.isDone()) {
+                    complete(record);
+                    return true;
                 }
+                record.setCheckpoint(chunk.getLastId());
+                record.setRowsProcessed(record.getRowsProcessed() + chunk.getRows());
+                dataMigrationRecordRepository.save(record);
+                return false;
+            }));
+            if (done) {
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastLog >= PROGRESS_INTERVAL_MILLIS) {
+                logProgress("Progress", migration, record.getRowsProcessed() - startRows, start);
+                lastLog = now;
             }
-        } catch (Exception e) {
-            System.err.println("Error during data migration: " + e.getMessage());
         }
     }
+
+    private void complete(DataMigrationRecord record) {
+        record.setStatus(DataMigrationRecord.Status.COMPLETED);
+        record.setCompletedAt(LocalDateTime.now());
+        dataMigrationRecordRepository.save(record);
+    }
+
+    private void logProgress(String label, DataMigration migration, long rows, long start) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        System.out.println(label + " data migration " + migration.getVersion() + ": " + rows + " rows in " +
+                elapsed + " ms (" + (rows * 1000 / elapsed) + " rows/s)");
+    }
 }
@@ -0,0 +1,173 @@
+package com.studentlife.scoreboard.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Times every JDBC statement the application executes, wherever it comes from (JPA, JdbcTemplate).
+ * Keeps per-request statement counts and database time for RequestDatabaseMetricsFilter, and logs
+ * a sample of statements slower than the threshold. Logged SQL never contains values: bind
+ * parameters are only counted and literals in the statement text are masked.
+ * Recent slow statements are available at /actuator/slowqueries.
+ */
+@Component
+public class JdbcStatementMonitor {
+
+    // String and numeric literals in SQL text
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+
+    // Longest statement text kept for a slow query
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    // Statement counts and time of the request running on the current thread, null outside requests
+    private static final ThreadLocal<RequestStats> REQUEST_STATS = new ThreadLocal<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Statements slower than this are counted as slow
+    @Value("${app.db.slow-query.threshold:PT0.2S}")
+    private Duration slowThreshold;
+
+    // Share of slow statements that are logged and kept, between 0 and 1
+    @Value("${app.db.slow-query.sample-rate:0.1}")
+    private double sampleRate;
+
+    // Number of recent sampled slow statements kept for the actuator endpoint
+    @Value("${app.db.slow-query.history:100}")
+    private int historySize;
+
+    private long slowThresholdNanos;
+
+    private Timer statementTimer;
+
+    private Counter slowStatements;
+
+    private final Deque<SlowQuery> recentSlowQueries = new ArrayDeque<>();
+
+    @PostConstruct
+    public void init() {
+        slowThresholdNanos = slowThreshold.toNanos();
+        statementTimer = Timer.builder("db.statements")
+                .description("JDBC statement execution time")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        slowStatements = Counter.builder("db.statements.slow")
+                .description("JDBC statements slower than app.db.slow-query.threshold")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records one executed statement. Called by the monitored data source on the executing thread.
+     */
+    public void record(String sql, int parameterCount, long elapsedNanos) {
+        statementTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        RequestStats stats = REQUEST_STATS.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.nanos += elapsedNanos;
+        }
+
+        if (elapsedNanos < slowThresholdNanos) {
+            return;
+        }
+        slowStatements.increment();
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                redact(sql), parameterCount);
+        System.err.println("Slow query (" + slowQuery.getMillis() + " ms, " + parameterCount + " parameters): " +
+                slowQuery.getSql());
+        synchronized (recentSlowQueries) {
+            recentSlowQueries.addFirst(slowQuery);
+            while (recentSlowQueries.size() > historySize) {
+                recentSlowQueries.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Recent sampled slow statements, newest first.
+     */
+    public List<SlowQuery> getRecentSlowQueries() {
+        synchronized (recentSlowQueries) {
+            return new ArrayList<>(recentSlowQueries);
+        }
+    }
+
+    static String redact(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        String redacted = LITERALS.matcher(sql).replaceAll("?").replaceAll("\\s+", " ").trim();
+        return redacted.length() > MAX_SQL_LENGTH ? redacted.substring(0, MAX_SQL_LENGTH) + "..." : redacted;
+    }
+
+    // Per-request accounting, driven by RequestDatabaseMetricsFilter
+
+    static RequestStats beginRequest() {
+        RequestStats stats = new RequestStats();
+        REQUEST_STATS.set(stats);
+        return stats;
+    }
+
+    static void endRequest() {
+        REQUEST_STATS.remove();
+    }
+
+    static class RequestStats {
+
+        int statements;
+        long nanos;
+    }
+
+    /**
+     * A sampled slow statement, with literals masked.
+     */
+    public static class SlowQuery {
+
+        private final Instant time;
+        private final long millis;
+        private final String sql;
+        private final int parameterCount;
+
+        SlowQuery(Instant time, long millis, String sql, int parameterCount) {
+            this.time = time;
+            this.millis = millis;
+            this.sql = sql;
+            this.parameterCount = parameterCount;
+        }
+
+        public Instant getTime() {
+            return time;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public int getParameterCount() {
+            return parameterCount;
+        }
+    }
+}
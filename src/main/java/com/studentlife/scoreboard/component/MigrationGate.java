@@ -0,0 +1,50 @@
+package com.studentlife.scoreboard.component;
+
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks whether startup data migrations have finished.
+ * While they run in the background the application reports itself as refusing traffic,
+ * even after Spring Boot has declared it ready, and flips to accepting once they finish.
+ */
+@Component
+public class MigrationGate {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile boolean ready;
+
+    // Whether readiness was held back and has to be announced when the gate opens
+    private boolean refused;
+
+    public MigrationGate(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Opens the gate, announcing that the application accepts traffic if readiness was held back.
+     */
+    public synchronized void markReady() {
+        ready = true;
+        if (refused) {
+            AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+    }
+
+    // Boot declares readiness once runners return; hold it back while migrations are still running
+    @EventListener
+    public synchronized void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        if (!ready && event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+            refused = true;
+            AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        }
+    }
+}
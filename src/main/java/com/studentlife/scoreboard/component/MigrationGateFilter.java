@@ -0,0 +1,49 @@
+package com.studentlife.scoreboard.component;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Answers 503 Service Unavailable until startup data migrations have finished,
+ * so requests that reach an instance early are retried instead of seeing half-migrated data.
+ * Actuator and static assets stay available so probes and the error page still work.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MigrationGateFilter extends OncePerRequestFilter {
+
+    // Seconds clients are asked to wait before retrying
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    @Autowired
+    private MigrationGate migrationGate;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return migrationGate.isReady()
+                || path.startsWith("/actuator")
+                || path.startsWith("/css/")
+                || path.startsWith("/js/")
+                || path.startsWith("/img/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("Starting up, please retry shortly.");
+    }
+}
@@ -0,0 +1,127 @@
+package com.studentlife.scoreboard.component;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Data source that reports every executed statement to {@link JdbcStatementMonitor}.
+ * Connections and statements are wrapped in thin proxies that time the execute calls; bind
+ * parameter values are never read, only the highest parameter index set is kept.
+ */
+public class MonitoredDataSource extends DelegatingDataSource implements Closeable {
+
+    private final ObjectProvider<JdbcStatementMonitor> statementMonitor;
+
+    // Resolved on first use, as the pool is created before the monitor bean
+    private volatile JdbcStatementMonitor monitor;
+
+    public MonitoredDataSource(DataSource targetDataSource, ObjectProvider<JdbcStatementMonitor> statementMonitor) {
+        super(targetDataSource);
+        this.statementMonitor = statementMonitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    // Closes the pool on shutdown; the container only sees this wrapper
+    @Override
+    public void close() throws IOException {
+        if (obtainTargetDataSource() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        JdbcStatementMonitor current = monitor;
+        if (current == null) {
+            current = statementMonitor.getIfAvailable();
+            if (current == null) {
+                return connection;
+            }
+            monitor = current;
+        }
+        JdbcStatementMonitor statementMonitor = current;
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && method.getName().startsWith("prepare")) {
+                        return wrap(statement, (String) args[0], statementMonitor);
+                    }
+                    if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                        return wrap(statement, null, statementMonitor);
+                    }
+                    return result;
+                });
+    }
+
+    private static Statement wrap(Statement statement, String preparedSql, JdbcStatementMonitor monitor) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(MonitoredDataSource.class.getClassLoader(), new Class<?>[]{type},
+                new StatementHandler(statement, preparedSql, monitor));
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private final JdbcStatementMonitor monitor;
+
+        // Highest bind parameter index set since the last execute
+        private int parameterCount;
+
+        StatementHandler(Statement statement, String preparedSql, JdbcStatementMonitor monitor) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameterCount = Math.max(parameterCount, index);
+            } else if (name.equals("clearParameters")) {
+                parameterCount = 0;
+            } else if (name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                long start = System.nanoTime();
+                try {
+                    return MonitoredDataSource.invoke(statement, method, args);
+                } finally {
+                    monitor.record(sql, parameterCount, System.nanoTime() - start);
+                    parameterCount = 0;
+                }
+            }
+            return MonitoredDataSource.invoke(statement, method, args);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
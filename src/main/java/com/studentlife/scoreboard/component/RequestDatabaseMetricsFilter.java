@@ -0,0 +1,124 @@
+package com.studentlife.scoreboard.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how many JDBC statements each request ran and how long they took in total,
+ * as db.request.statements and db.request.time tagged with the endpoint's method and URI pattern.
+ * Work handed to other threads (async exports, background cleanup) is not included.
+ *
+ * Endpoints can be given a statement budget (app.db.statement-budget.limits). A request over
+ * its budget is logged and counted as db.request.budget.exceeded; with
+ * app.db.statement-budget.enforce it fails instead, so N+1 regressions break integration tests.
+ */
+@Component
+public class RequestDatabaseMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Comma-separated "[METHOD ]pattern=max" entries; the method defaults to GET
+    @Value("${app.db.statement-budget.limits:}")
+    private String budgetLimits;
+
+    // Whether a request over its budget fails rather than only being logged and counted
+    @Value("${app.db.statement-budget.enforce:false}")
+    private boolean enforceBudgets;
+
+    // Maximum statements by "METHOD pattern"
+    private final Map<String, Integer> budgets = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (String entry : budgetLimits.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int equals = entry.lastIndexOf('=');
+            if (equals < 0) {
+                throw new IllegalStateException("Invalid statement budget '" + entry.trim() + "', expected [METHOD ]pattern=max");
+            }
+            String endpoint = entry.substring(0, equals).trim();
+            if (!endpoint.contains(" ")) {
+                endpoint = "GET " + endpoint;
+            }
+            budgets.put(endpoint, Integer.parseInt(entry.substring(equals + 1).trim()));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/css/") || path.startsWith("/js/") || path.startsWith("/img/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        JdbcStatementMonitor.RequestStats stats = JdbcStatementMonitor.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            JdbcStatementMonitor.endRequest();
+            DistributionSummary.builder("db.request.statements")
+                    .description("JDBC statements executed per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", endpointOf(request))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(stats.statements);
+            Timer.builder("db.request.time")
+                    .description("Total JDBC statement time per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", endpointOf(request))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(stats.nanos, TimeUnit.NANOSECONDS);
+        }
+        // Only checked when the request completed, so a budget failure never hides the original error
+        checkBudget(request, stats.statements);
+    }
+
+    private void checkBudget(HttpServletRequest request, int statements) {
+        String uri = endpointOf(request);
+        Integer budget = budgets.get(request.getMethod() + " " + uri);
+        if (budget == null || statements <= budget) {
+            return;
+        }
+        Counter.builder("db.request.budget.exceeded")
+                .description("Requests that ran more JDBC statements than their endpoint's budget")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .increment();
+        String message = request.getMethod() + " " + uri + " ran " + statements +
+                " statements, over its budget of " + budget;
+        if (enforceBudgets) {
+            throw new IllegalStateException(message);
+        }
+        System.err.println("Statement budget exceeded: " + message);
+    }
+
+    private static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
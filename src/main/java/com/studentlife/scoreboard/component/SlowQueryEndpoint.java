@@ -0,0 +1,25 @@
+package com.studentlife.scoreboard.component;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint (/actuator/slowqueries) listing recently sampled slow statements, newest first.
+ * Statement text has its literals masked and bind parameters are only counted.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    @Autowired
+    private JdbcStatementMonitor jdbcStatementMonitor;
+
+    @ReadOperation
+    public List<JdbcStatementMonitor.SlowQuery> recent() {
+        return jdbcStatementMonitor.getRecentSlowQueries();
+    }
+}
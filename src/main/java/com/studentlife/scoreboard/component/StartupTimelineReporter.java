@@ -0,0 +1,117 @@
+package com.studentlife.scoreboard.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints how long startup phases and the slowest beans took once the application is ready,
+ * and optionally writes the same figures as JSON so CI can compare them between builds.
+ * Enabled with app.startup.report=true; reads the steps buffered by BufferingApplicationStartup.
+ */
+@Component
+public class StartupTimelineReporter {
+
+    private static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+
+    @Value("${app.startup.report:false}")
+    private boolean enabled;
+
+    // Number of slowest beans listed
+    @Value("${app.startup.report.top:20}")
+    private int top;
+
+    // Optional path of the JSON report
+    @Value("${app.startup.report.file:}")
+    private String reportFile;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!enabled || !(startup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+
+        StartupTimeline timeline = buffering.getBufferedTimeline();
+        Map<String, Long> phases = new LinkedHashMap<>();
+        List<Map<String, Object>> beans = new ArrayList<>();
+        for (StartupTimeline.TimelineEvent timelineEvent : timeline.getEvents()) {
+            StartupStep step = timelineEvent.getStartupStep();
+            long millis = timelineEvent.getDuration().toMillis();
+            if (BEAN_INSTANTIATION_STEP.equals(step.getName())) {
+                Map<String, Object> bean = new LinkedHashMap<>();
+                bean.put("name", beanName(step));
+                bean.put("millis", millis);
+                beans.add(bean);
+            } else {
+                phases.merge(step.getName(), millis, Long::sum);
+            }
+        }
+        beans.sort(Comparator.comparingLong((Map<String, Object> bean) -> (Long) bean.get("millis")).reversed());
+        List<Map<String, Object>> slowest = beans.subList(0, Math.min(top, beans.size()));
+
+        Duration timeTaken = event.getTimeTaken();
+        long totalMillis = timeTaken != null ? timeTaken.toMillis() : -1;
+
+        StringBuilder report = new StringBuilder("Startup timeline (" + totalMillis + " ms to ready, " +
+                beans.size() + " beans created):\n");
+        phases.forEach((name, millis) -> report.append(String.format("  %6d ms  %s%n", millis, name)));
+        report.append("  Slowest beans (including their dependencies):\n");
+        for (Map<String, Object> bean : slowest) {
+            report.append(String.format("  %6d ms  %s%n", (Long) bean.get("millis"), bean.get("name")));
+        }
+        System.out.print(report);
+
+        if (!reportFile.isBlank()) {
+            writeReport(totalMillis, beans.size(), phases, slowest);
+        }
+    }
+
+    private void writeReport(long totalMillis, int beanCount, Map<String, Long> phases, List<Map<String, Object>> slowest) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("totalMillis", totalMillis);
+        report.put("beanCount", beanCount);
+        report.put("phases", phases);
+        report.put("slowestBeans", slowest);
+        try {
+            Path path = Paths.get(reportFile);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+            System.out.println("Startup timeline written to " + path.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Failed to write startup timeline: " + e.getMessage());
+        }
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
@@ -0,0 +1,205 @@
+package com.studentlife.scoreboard.component;
+
+import com.studentlife.scoreboard.entity.Category;
+import com.studentlife.scoreboard.entity.User;
+import com.studentlife.scoreboard.repository.UserRepository;
+import com.studentlife.scoreboard.service.CategoryRegistry;
+import com.studentlife.scoreboard.service.DailyTotalsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeds synthetic users and habit entries for capacity planning and load tests.
+ * Runs only when the application is started with --generate-data, after data migrations.
+ * Users are named {prefix}0001, {prefix}0002, ... and share one password; existing users are
+ * skipped. Entries are spread over each user's history with per-user category preferences,
+ * quieter weekends and per-category durations, written with JDBC batch inserts in chunks.
+ * The daily rollup is rebuilt once at the end.
+ */
+@Component
+@Order(20)
+public class SyntheticDataRunner implements ApplicationRunner {
+
+    public static final String GENERATE_OPTION = "generate-data";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO habit_entries (user_id, category_id, description, date, duration, score, notes, custom_label) " +
+            "VALUES (?, ?, ?, ?, ?, ?, NULL, NULL)";
+
+    // Typical minutes and relative frequency per default category; others get the fallback
+    private static final Map<String, int[]> CATEGORY_PROFILES = Map.of(
+            "STUDY", new int[]{90, 30},
+            "EXERCISE", new int[]{45, 20},
+            "NAP", new int[]{30, 8},
+            "NUTRITION", new int[]{20, 10},
+            "SOCIAL", new int[]{60, 10},
+            "MINDFULNESS", new int[]{15, 7},
+            "CREATIVE", new int[]{60, 5},
+            "READING", new int[]{40, 7}
+    );
+    private static final int[] FALLBACK_PROFILE = {30, 3};
+
+    private static final String[] ACTIVITIES = {"session", "practice", "block", "routine", "catch-up"};
+
+    @Value("${app.synthetic.users:50}")
+    private int users;
+
+    // Average entries per user; individual users vary between half and one and a half times this
+    @Value("${app.synthetic.entries-per-user:2000}")
+    private int entriesPerUser;
+
+    // Longest history, in days before today
+    @Value("${app.synthetic.days:730}")
+    private int days;
+
+    @Value("${app.synthetic.user-prefix:loaduser}")
+    private String userPrefix;
+
+    @Value("${app.synthetic.password:loadtest1}")
+    private String password;
+
+    @Value("${app.synthetic.seed:42}")
+    private long seed;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    @Autowired
+    private DailyTotalsService dailyTotalsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(GENERATE_OPTION)) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+        List<Category> categories = categoryRegistry.getAll();
+        String passwordHash = passwordEncoder.encode(password);
+        LocalDate today = LocalDate.now();
+
+        long written = 0;
+        int created = 0;
+        for (int i = 1; i <= users; i++) {
+            String username = String.format("%s%04d", userPrefix, i);
+            if (userRepository.findByUsername(username).isPresent()) {
+                continue;
+            }
+            User user = userRepository.save(new User(username, passwordHash));
+            created++;
+
+            int count = (int) (entriesPerUser * (0.5 + random.nextDouble()));
+            written += generateEntries(user.getId(), count, categories, today, random);
+            if (created % 10 == 0) {
+                System.out.println("Generated " + created + " users, " + written + " entries");
+            }
+        }
+
+        int rollupRows = dailyTotalsService.rebuildAll();
+        System.out.println("Generated " + created + " users and " + written + " entries (" + rollupRows +
+                " rollup rows) in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private long generateEntries(Long userId, int count, List<Category> categories, LocalDate today, Random random) {
+        // Each user has their own history length and leans towards some categories
+        int historyDays = 30 + random.nextInt(Math.max(1, days - 30));
+        double[] weights = new double[categories.size()];
+        double weightSum = 0;
+        for (int c = 0; c < weights.length; c++) {
+            weights[c] = profileOf(categories.get(c))[1] * (0.25 + 1.5 * random.nextDouble());
+            weightSum += weights[c];
+        }
+
+        List<Object[]> chunk = new ArrayList<>(chunkSize);
+        long written = 0;
+        for (int n = 0; n < count; n++) {
+            LocalDate date;
+            do {
+                date = today.minusDays(random.nextInt(historyDays));
+            } while (isWeekend(date) && random.nextInt(10) < 3);
+
+            int c = 0;
+            double pick = random.nextDouble() * weightSum;
+            while (c < weights.length - 1 && pick >= weights[c]) {
+                pick -= weights[c];
+                c++;
+            }
+            Category category = categories.get(c);
+
+            // Durations are skewed: mostly near the typical length, with a long tail
+            int typical = profileOf(category)[0];
+            int duration = (int) Math.max(1, Math.min(600, Math.round(typical * Math.exp(random.nextGaussian() * 0.5))));
+            Integer score = random.nextInt(4) == 0 ? null : Math.max(1, Math.min(10, (int) Math.round(7 + random.nextGaussian() * 1.8)));
+            String description = category.getName().charAt(0) + category.getName().substring(1).toLowerCase() + " " +
+                    ACTIVITIES[random.nextInt(ACTIVITIES.length)];
+
+            chunk.add(new Object[]{category.getId(), description, date, duration, score});
+            if (chunk.size() == chunkSize) {
+                written += writeChunk(userId, chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            written += writeChunk(userId, chunk);
+        }
+        return written;
+    }
+
+    private int writeChunk(Long userId, List<Object[]> chunk) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(), (ps, row) -> {
+                ps.setLong(1, userId);
+                ps.setLong(2, (Long) row[0]);
+                ps.setString(3, (String) row[1]);
+                ps.setDate(4, Date.valueOf((LocalDate) row[2]));
+                ps.setInt(5, (Integer) row[3]);
+                if (row[4] != null) {
+                    ps.setInt(6, (Integer) row[4]);
+                } else {
+                    ps.setNull(6, Types.INTEGER);
+                }
+            });
+            return chunk.size();
+        });
+    }
+
+    private static int[] profileOf(Category category) {
+        return CATEGORY_PROFILES.getOrDefault(category.getName(), FALLBACK_PROFILE);
+    }
+
+    private static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+}
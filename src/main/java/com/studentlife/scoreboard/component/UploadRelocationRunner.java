@@ -0,0 +1,40 @@
+package com.studentlife.scoreboard.component;
+
+import com.studentlife.scoreboard.service.UploadDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Moves uploads stored in the flat layout into their hash-prefix shard directories on startup.
+ * This only touches files, so it is not a data migration: it keeps no ledger entry and simply
+ * runs on every startup that still finds files at the top level of the upload directory.
+ * Uploads are served from either location, so a failed move is logged and retried next time.
+ */
+@Component
+@Order(5)
+public class UploadRelocationRunner implements ApplicationRunner {
+
+    @Autowired
+    private UploadDirectory uploadDirectory;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!uploadDirectory.hasLegacyFiles()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            long moved = uploadDirectory.relocateLegacyFiles();
+            System.out.println("Relocated " + moved + " uploads into shard directories in " +
+                    (System.currentTimeMillis() - start) + " ms");
+        } catch (IOException e) {
+            System.err.println("Error relocating uploads, will retry on next startup: " + e.getMessage());
+        }
+    }
+}
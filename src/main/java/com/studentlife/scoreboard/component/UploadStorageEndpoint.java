@@ -0,0 +1,37 @@
+package com.studentlife.scoreboard.component;
+
+import com.studentlife.scoreboard.dto.OrphanSweepReport;
+import com.studentlife.scoreboard.dto.UploadStorageReport;
+import com.studentlife.scoreboard.service.FileStorageService;
+import com.studentlife.scoreboard.service.UploadGarbageCollector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint (/actuator/uploads) reporting upload disk usage and deduplication savings.
+ * A POST reports what the orphaned-file sweep would delete without deleting anything;
+ * files are only removed by the scheduled sweep (app.upload.gc.cron).
+ */
+@Component
+@Endpoint(id = "uploads")
+public class UploadStorageEndpoint {
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private UploadGarbageCollector uploadGarbageCollector;
+
+    @ReadOperation
+    public UploadStorageReport report() {
+        return fileStorageService.getStorageReport();
+    }
+
+    @WriteOperation
+    public OrphanSweepReport sweep() {
+        return uploadGarbageCollector.sweep(true);
+    }
+}
@@ -0,0 +1,119 @@
+package com.studentlife.scoreboard.config;
+
+import com.studentlife.scoreboard.component.JdbcStatementMonitor;
+import com.studentlife.scoreboard.component.MonitoredDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool metrics.
+ * Besides the standard hikaricp.* meters, records how long each borrowed connection is held
+ * as db.connection.hold, tagged with the endpoint (handler URI pattern) that held it, so
+ * requests that keep connections checked out show up per endpoint.
+ * The data source is also wrapped so every statement is timed by {@link JdbcStatementMonitor}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DataSourceMetricsConfig {
+
+    // Tag for connections used outside a mapped request: startup, migrations, scheduled jobs
+    private static final String NO_ENDPOINT = "none";
+
+    /**
+     * Installs the tracker before the pool starts. Spring Boot then leaves the pool's
+     * metrics to it instead of binding its own. Wrapping happens here too, after the tracker is
+     * set, since the pool is no longer visible as a HikariDataSource once wrapped.
+     */
+    @Bean
+    static BeanPostProcessor connectionHoldTimeMetrics(ObjectProvider<MeterRegistry> meterRegistry,
+                                                       ObjectProvider<JdbcStatementMonitor> statementMonitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari
+                        && hikari.getMetricRegistry() == null && hikari.getMetricsTrackerFactory() == null) {
+                    hikari.setMetricsTrackerFactory(new EndpointMetricsTrackerFactory(meterRegistry));
+                }
+                if (bean instanceof DataSource dataSource && !(bean instanceof MonitoredDataSource)) {
+                    return new MonitoredDataSource(dataSource, statementMonitor);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static class EndpointMetricsTrackerFactory implements MetricsTrackerFactory {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        EndpointMetricsTrackerFactory(ObjectProvider<MeterRegistry> meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        // Called once, when the pool starts
+        @Override
+        public IMetricsTracker create(String poolName, PoolStats poolStats) {
+            MeterRegistry registry = meterRegistry.getObject();
+            IMetricsTracker poolTracker = new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats);
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                    poolTracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+                }
+
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    poolTracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+                }
+
+                // Runs on the thread returning the connection, so the request is still bound to it
+                @Override
+                public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                    poolTracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+                    Timer.builder("db.connection.hold")
+                            .description("Time a pooled connection was held, by endpoint")
+                            .tag("pool", poolName)
+                            .tag("uri", currentEndpoint())
+                            .register(registry)
+                            .record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    poolTracker.recordConnectionTimeout();
+                }
+
+                @Override
+                public void close() {
+                    poolTracker.close();
+                }
+            };
+        }
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            return pattern != null ? pattern.toString() : "UNKNOWN";
+        }
+        return NO_ENDPOINT;
+    }
+}
@@ -1,6 +1,7 @@
 package com.studentlife.scoreboard.config;
 
 import com.studentlife.scoreboard.service.UserService;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -33,6 +34,10 @@ public class SecurityConfig {
             .authorizeHttpRequests(authz -> authz
                 // Public pages and resources
                 .requestMatchers("/", "/index", "/login", "/register", "/css/**", "/js/**", "/img/**", "/uploads/**").permitAll()
+                // Health probes used by the load balancer during deploys
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                // Other actuator endpoints expose metrics, SQL text and storage details: admins only
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
                 // Protected pages
                 .requestMatchers("/dashboard", "/stats").authenticated()
                 .requestMatchers("/entries/**").authenticated()
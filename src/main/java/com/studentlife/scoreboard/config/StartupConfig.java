@@ -0,0 +1,33 @@
+package com.studentlife.scoreboard.config;
+
+import jakarta.servlet.Filter;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Startup configuration.
+ * When spring.main.lazy-initialization is on (fast-startup profile), web-facing beans are still
+ * created eagerly so the first request does not pay for building the MVC and security layers;
+ * everything else is created on first use.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerWebBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                    || AnnotatedElementUtils.hasAnnotation(beanType, ControllerAdvice.class)
+                    || WebMvcConfigurer.class.isAssignableFrom(beanType)
+                    || HandlerMethodArgumentResolver.class.isAssignableFrom(beanType)
+                    || Filter.class.isAssignableFrom(beanType)
+                    || SecurityFilterChain.class.isAssignableFrom(beanType));
+    }
+}
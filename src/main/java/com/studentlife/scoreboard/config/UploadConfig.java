@@ -1,23 +1,77 @@
 package com.studentlife.scoreboard.config;
 
+import com.studentlife.scoreboard.service.ImageVariantService;
+import com.studentlife.scoreboard.service.UploadDirectory;
+import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
 
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * Configuration for static file uploads.
  * Maps the /uploads/** URL path to the configured upload directory on the filesystem.
- * Allows uploaded images to be served as static resources.
+ * URLs use the flat stored name; the shard directory the file lives in is resolved on the server.
+ * Content-addressed names (and their variants) never change content, so they are cacheable forever;
+ * older names are revalidated against their ETag on every use. Last-Modified, conditional requests
+ * (304) and byte ranges are handled by Spring's resource handler.
  */
 @Configuration
 public class UploadConfig implements WebMvcConfigurer {
     
-    // Upload directory path from application properties
-    @Value("${app.upload.dir}")
-    private String uploadDir;
+    // Content-addressed originals: the name is the SHA-256 of the bytes
+    private static final Pattern CONTENT_HASH_NAME = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,10})?");
+    
+    @Autowired
+    private UploadDirectory uploadDirectory;
+    
+    @Autowired
+    private ImageVariantService imageVariantService;
+    
+    // Number of resolved uploads whose file metadata is kept in memory
+    @Value("${app.upload.resource-cache.size:10000}")
+    private int resourceCacheSize;
+    
+    // How long a cached lookup is trusted before the file is checked again
+    @Value("${app.upload.resource-cache.ttl:PT5M}")
+    private Duration resourceCacheTtl;
+    
+    /**
+     * Keeps multipart temp files in the upload staging directory unless a location is configured,
+     * so stored uploads are renamed into place rather than copied.
+     */
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties multipartProperties) {
+        MultipartConfigElement config = multipartProperties.createMultipartConfig();
+        if (config.getLocation() != null && !config.getLocation().isEmpty()) {
+            return config;
+        }
+        return new MultipartConfigElement(uploadDirectory.getIncoming().toString(), config.getMaxFileSize(),
+                config.getMaxRequestSize(), config.getFileSizeThreshold());
+    }
     
     /**
      * Registers a resource handler to serve uploaded files.
@@ -25,8 +79,199 @@ public class UploadConfig implements WebMvcConfigurer {
      */
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        String uploadPath = Paths.get(uploadDir).toAbsolutePath().toUri().toString();
+        String uploadPath = uploadDirectory.getRoot().toUri().toString();
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(uploadPath);
+                .addResourceLocations(uploadPath)
+                .setEtagGenerator(UploadConfig::etagOf)
+                .resourceChain(false)
+                .addResolver(new CachedMetadataResolver(resourceCacheSize, resourceCacheTtl.toMillis()))
+                .addResolver(new MissingVariantResolver())
+                .addResolver(new ShardedPathResolver())
+                .addResolver(new PathResourceResolver());
+    }
+    
+    /**
+     * Sets Cache-Control for uploads by name. The resource handler has no cache settings of its own,
+     * so the header is kept on both full responses and 304s.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new UploadCacheControlInterceptor()).addPathPatterns("/uploads/**");
+    }
+    
+    /**
+     * Immutable for content-addressed originals and their variants, whose name changes with the
+     * content; no-cache for other (legacy) names, which are revalidated with their ETag.
+     */
+    static CacheControl cacheControlOf(String filename) {
+        String original = ImageVariantService.originalOf(filename);
+        String name = original != null ? original : filename;
+        if (CONTENT_HASH_NAME.matcher(name).matches()) {
+            return CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+        }
+        return CacheControl.noCache();
+    }
+    
+    /**
+     * Strong ETag: the content hash for content-addressed names,
+     * otherwise derived from the file's modification time and length.
+     */
+    static String etagOf(Resource resource) {
+        try {
+            String filename = resource.getFilename();
+            var matcher = filename != null ? CONTENT_HASH_NAME.matcher(filename) : null;
+            if (matcher != null && matcher.matches()) {
+                return matcher.group(1);
+            }
+            return Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(resource.contentLength());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    private static class UploadCacheControlInterceptor implements HandlerInterceptor {
+        
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            Object path = request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+            if (path != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControlOf(path.toString()).getHeaderValue());
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Bounded LRU of resolved uploads. A hit costs a single existence check instead of the path
+     * checks of resolution and the stat calls for length and modification time, which are read
+     * once per file. Entries also expire after a while.
+     */
+    private static class CachedMetadataResolver implements ResourceResolver {
+        
+        private final long ttlMillis;
+        private final Map<String, CachedResource> cache;
+        
+        CachedMetadataResolver(int maxEntries, long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+            this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedResource> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+        
+        @Override
+        public Resource resolveResource(HttpServletRequest request, String requestPath,
+                                        List<? extends Resource> locations, ResourceResolverChain chain) {
+            // Only flat stored names are served; this also hides the staging directory
+            if (!UploadDirectory.isSafeFilename(requestPath)) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            CachedResource cached;
+            synchronized (cache) {
+                cached = cache.get(requestPath);
+            }
+            // One stat call, so a deleted upload is not served from the cache
+            if (cached != null && cached.expiresAt > now && cached.exists()) {
+                return cached;
+            }
+            
+            Resource resource = chain.resolveResource(request, requestPath, locations);
+            if (resource == null) {
+                synchronized (cache) {
+                    cache.remove(requestPath);
+                }
+                return null;
+            }
+            try {
+                cached = new CachedResource(resource, now + ttlMillis);
+                synchronized (cache) {
+                    cache.put(requestPath, cached);
+                }
+                return cached;
+            } catch (IOException e) {
+                return resource;
+            }
+        }
+        
+        @Override
+        public String resolveUrlPath(String resourcePath, List<? extends Resource> locations, ResourceResolverChain chain) {
+            return chain.resolveUrlPath(resourcePath, locations);
+        }
+    }
+    
+    /**
+     * A resolved upload with its length and modification time read once.
+     */
+    private static class CachedResource extends FileSystemResource {
+        
+        private final long contentLength;
+        private final long lastModified;
+        private final long expiresAt;
+        
+        CachedResource(Resource resource, long expiresAt) throws IOException {
+            super(resource.getFile().toPath());
+            this.contentLength = resource.contentLength();
+            this.lastModified = resource.lastModified();
+            this.expiresAt = expiresAt;
+        }
+        
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+        
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+    }
+    
+    /**
+     * Queues generation of an image variant that was requested but does not exist yet,
+     * e.g. for images uploaded before variants were introduced. The request itself still
+     * gets a 404 and the page falls back to the original image.
+     */
+    private class MissingVariantResolver implements ResourceResolver {
+        
+        @Override
+        public Resource resolveResource(HttpServletRequest request, String requestPath,
+                                        List<? extends Resource> locations, ResourceResolverChain chain) {
+            Resource resource = chain.resolveResource(request, requestPath, locations);
+            if (resource == null && UploadDirectory.isSafeFilename(requestPath)) {
+                String original = ImageVariantService.originalOf(requestPath);
+                if (original != null) {
+                    imageVariantService.enqueue(original);
+                }
+            }
+            return resource;
+        }
+        
+        @Override
+        public String resolveUrlPath(String resourcePath, List<? extends Resource> locations, ResourceResolverChain chain) {
+            return chain.resolveUrlPath(resourcePath, locations);
+        }
+    }
+    
+    /**
+     * Maps a stored name to its path in the sharded layout before the file is looked up.
+     */
+    private class ShardedPathResolver implements ResourceResolver {
+        
+        @Override
+        public Resource resolveResource(HttpServletRequest request, String requestPath,
+                                        List<? extends Resource> locations, ResourceResolverChain chain) {
+            if (!UploadDirectory.isSafeFilename(requestPath)) {
+                return null;
+            }
+            return chain.resolveResource(request, uploadDirectory.relativePath(requestPath), locations);
+        }
+        
+        @Override
+        public String resolveUrlPath(String resourcePath, List<? extends Resource> locations, ResourceResolverChain chain) {
+            return chain.resolveUrlPath(resourcePath, locations);
+        }
     }
 }
@@ -0,0 +1,30 @@
+package com.studentlife.scoreboard.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.util.Map;
+
+/**
+ * ETag handling for pages built from a user's data (see UserDataVersions).
+ * Handlers call it before loading anything and return null when it reports the page unchanged.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Sets the ETag and answers 304 if the client's copy has it. Pages may be kept by the browser
+     * but must be revalidated on every view, and a page carrying flash messages is always rendered.
+     */
+    static boolean notModified(ServletWebRequest webRequest, String etag) {
+        Map<String, ?> flash = RequestContextUtils.getInputFlashMap(webRequest.getRequest());
+        if (flash != null && !flash.isEmpty()) {
+            return false;
+        }
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return webRequest.checkNotModified(etag);
+    }
+}
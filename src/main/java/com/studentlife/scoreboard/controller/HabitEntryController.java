@@ -1,22 +1,39 @@
 package com.studentlife.scoreboard.controller;
 
+import com.studentlife.scoreboard.dto.HabitEntrySummary;
+import com.studentlife.scoreboard.dto.ImportResult;
+import com.studentlife.scoreboard.dto.KeysetPage;
 import com.studentlife.scoreboard.entity.HabitEntry;
 import com.studentlife.scoreboard.entity.Category;
 import com.studentlife.scoreboard.entity.User;
+import com.studentlife.scoreboard.security.CurrentUser;
 import com.studentlife.scoreboard.service.HabitEntryService;
 import com.studentlife.scoreboard.service.FileStorageService;
-import com.studentlife.scoreboard.repository.CategoryRepository;
-import com.studentlife.scoreboard.repository.UserRepository;
+import com.studentlife.scoreboard.service.CategoryRegistry;
+import com.studentlife.scoreboard.service.HabitExportService;
+import com.studentlife.scoreboard.service.HabitImportService;
+import com.studentlife.scoreboard.service.UserDataVersions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.security.Principal;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controller for habit entry CRUD operations.
@@ -34,35 +51,56 @@ public class HabitEntryController {
     private FileStorageService fileStorageService;
     
     @Autowired
-    private CategoryRepository categoryRepository;
+    private CategoryRegistry categoryRegistry;
     
     @Autowired
-    private UserRepository userRepository;
+    private HabitExportService habitExportService;
+    
+    @Autowired
+    private HabitImportService habitImportService;
+    
+    @Autowired
+    private UserDataVersions userDataVersions;
+    
+    // Default and maximum number of entries shown per page
+    @Value("${app.entries.page-size:24}")
+    private int defaultPageSize;
+    
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    // Largest date shift a bulk action accepts, in days either way
+    private static final int MAX_SHIFT_DAYS = 366;
     
     /**
-     * Lists all habit entries for the current user with optional filtering.
+     * Lists the current user's habit entries with optional filtering, one page at a time.
+     * The after parameter is the cursor returned with the previous page.
      * Ensures user data isolation by filtering by current authenticated user.
+     * Answers 304 while the user's entries are unchanged since the client's copy.
      */
     @GetMapping
     public String listEntries(
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
-            Principal principal,
-            Model model) {
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size,
+            @CurrentUser User currentUser,
+            Model model,
+            ServletWebRequest webRequest) {
         
-        // Get current authenticated user
-        User currentUser = userRepository.findByUsername(principal.getName()).orElse(null);
         if (currentUser == null) {
             return "redirect:/login";
         }
+        if (ConditionalGet.notModified(webRequest, userDataVersions.etag(currentUser.getId(), null))) {
+            return null;
+        }
         
         Category category = null;
         LocalDate start = null;
         LocalDate end = null;
         
         if (categoryId != null) {
-            category = categoryRepository.findById(categoryId).orElse(null);
+            category = categoryRegistry.findById(categoryId).orElse(null);
         }
         
         if (startDate != null && !startDate.isEmpty()) {
@@ -73,11 +111,15 @@ public class HabitEntryController {
             end = LocalDate.parse(endDate);
         }
         
+        int pageSize = size != null ? Math.max(1, Math.min(size, MAX_PAGE_SIZE)) : defaultPageSize;
+        
         // Filter entries by current user only
-        List<HabitEntry> entries = habitEntryService.filterEntries(currentUser, category, start, end);
+        KeysetPage<HabitEntrySummary> page = habitEntryService.filterEntries(currentUser, category, start, end, after, pageSize);
         
-        model.addAttribute("entries", entries);
-        model.addAttribute("categories", categoryRepository.findAll());
+        model.addAttribute("entries", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("pageSize", size);
+        model.addAttribute("categories", categoryRegistry.getAll());
         model.addAttribute("selectedCategoryId", categoryId);
         model.addAttribute("selectedStartDate", startDate);
         model.addAttribute("selectedEndDate", endDate);
@@ -85,13 +127,103 @@ public class HabitEntryController {
         return "habits/list";
     }
     
+    /**
+     * Streams the current user's entries as a CSV or NDJSON download, optionally gzip-compressed.
+     * Accepts the same filters as the entries list.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEntries(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @CurrentUser User currentUser) {
+        
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        HabitExportService.Format exportFormat;
+        try {
+            exportFormat = HabitExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        Long userId = currentUser.getId();
+        Category category = categoryId != null ? categoryRegistry.findById(categoryId).orElse(null) : null;
+        LocalDate start = startDate != null && !startDate.isEmpty() ? LocalDate.parse(startDate) : null;
+        LocalDate end = endDate != null && !endDate.isEmpty() ? LocalDate.parse(endDate) : null;
+        
+        String filename = "habits-" + LocalDate.now() + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024)) {
+                    habitExportService.export(userId, category, start, end, exportFormat, gzipOut);
+                }
+            } else {
+                habitExportService.export(userId, category, start, end, exportFormat, out);
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+    
+    /**
+     * Displays the form for importing habit history from a file.
+     */
+    @GetMapping("/import")
+    public String showImportForm() {
+        return "habits/import";
+    }
+    
+    /**
+     * Imports habit entries for the current user from an uploaded CSV, JSON or NDJSON file
+     * (optionally gzip-compressed) and shows which rows were imported or rejected.
+     */
+    @PostMapping("/import")
+    public String importEntries(@RequestParam("file") MultipartFile file,
+                                @RequestParam(value = "format", required = false) String format,
+                                @CurrentUser User currentUser,
+                                Model model) {
+        if (currentUser == null) {
+            return "redirect:/login";
+        }
+        
+        if (file == null || file.isEmpty()) {
+            model.addAttribute("importError", "Please choose a file to import");
+            return "habits/import";
+        }
+        
+        // Format is detected from the content unless explicitly chosen
+        HabitImportService.Format importFormat = null;
+        if ("csv".equalsIgnoreCase(format)) {
+            importFormat = HabitImportService.Format.CSV;
+        } else if ("json".equalsIgnoreCase(format) || "ndjson".equalsIgnoreCase(format)) {
+            importFormat = HabitImportService.Format.JSON;
+        }
+        
+        try (InputStream in = file.getInputStream()) {
+            ImportResult result = habitImportService.importEntries(currentUser, in, importFormat);
+            model.addAttribute("importResult", result);
+        } catch (IOException e) {
+            model.addAttribute("importError", "Could not read the file: " + e.getMessage());
+        }
+        return "habits/import";
+    }
+    
     /**
      * Displays the form for creating a new habit entry.
      */
     @GetMapping("/new")
     public String showCreateForm(Model model) {
         model.addAttribute("habitEntry", new HabitEntry());
-        model.addAttribute("categories", categoryRepository.findAll());
+        model.addAttribute("categories", categoryRegistry.getAll());
         return "habits/form";
     }
     
@@ -104,18 +236,16 @@ public class HabitEntryController {
                            BindingResult result,
                            @RequestParam(value = "image", required = false) MultipartFile imageFile,
                            @RequestParam(value = "categoryId", required = false) Long categoryId,
-                           Principal principal,
+                           @CurrentUser User currentUser,
                            Model model) {
         
-        // Get current authenticated user
-        User currentUser = userRepository.findByUsername(principal.getName()).orElse(null);
         if (currentUser == null) {
             return "redirect:/login";
         }
         
         // Set category if provided
         if (categoryId != null) {
-            categoryRepository.findById(categoryId).ifPresent(habitEntry::setCategory);
+            categoryRegistry.findById(categoryId).ifPresent(habitEntry::setCategory);
         }
         
         // Validate after setting category
@@ -130,7 +260,7 @@ public class HabitEntryController {
         }
         
         if (result.hasErrors()) {
-            model.addAttribute("categories", categoryRepository.findAll());
+            model.addAttribute("categories", categoryRegistry.getAll());
             return "habits/form";
         }
         
@@ -157,8 +287,7 @@ public class HabitEntryController {
      * Ensures the entry belongs to the current user before allowing edit.
      */
     @GetMapping("/{id}/edit")
-    public String showEditForm(@PathVariable Long id, Principal principal, Model model) {
-        User currentUser = userRepository.findByUsername(principal.getName()).orElse(null);
+    public String showEditForm(@PathVariable Long id, @CurrentUser User currentUser, Model model) {
         if (currentUser == null) {
             return "redirect:/login";
         }
@@ -170,7 +299,7 @@ public class HabitEntryController {
                         return "redirect:/entries";
                     }
                     model.addAttribute("habitEntry", entry);
-                    model.addAttribute("categories", categoryRepository.findAll());
+                    model.addAttribute("categories", categoryRegistry.getAll());
                     return "habits/form";
                 })
                 .orElse("redirect:/entries");
@@ -178,7 +307,7 @@ public class HabitEntryController {
     
     /**
      * Updates an existing habit entry after validation.
-     * Ensures the entry belongs to the current user before allowing update.
+     * Only entries of the current user are updated.
      */
     @PostMapping("/{id}")
     public String updateEntry(@PathVariable Long id,
@@ -186,17 +315,16 @@ public class HabitEntryController {
                              BindingResult result,
                              @RequestParam(value = "image", required = false) MultipartFile imageFile,
                              @RequestParam(value = "categoryId", required = false) Long categoryId,
-                             Principal principal,
+                             @CurrentUser User currentUser,
                              Model model) {
         
-        User currentUser = userRepository.findByUsername(principal.getName()).orElse(null);
         if (currentUser == null) {
             return "redirect:/login";
         }
         
         // Set category if provided
         if (categoryId != null) {
-            categoryRepository.findById(categoryId).ifPresent(habitEntry::setCategory);
+            categoryRegistry.findById(categoryId).ifPresent(habitEntry::setCategory);
         }
         
         // Validate after setting category
@@ -210,53 +338,100 @@ public class HabitEntryController {
             result.rejectValue("duration", "error.duration", "Duration must be at least 1 minute");
         }
         
+        if (habitEntry.getDate() == null) {
+            result.rejectValue("date", "error.date", "Date is required");
+        }
+        
         if (result.hasErrors()) {
-            model.addAttribute("categories", categoryRepository.findAll());
+            model.addAttribute("categories", categoryRegistry.getAll());
             return "habits/form";
         }
         
-        // Preserve existing image and user if no new image is uploaded
-        HabitEntry existingEntry = habitEntryService.getEntryById(id).orElse(null);
-        if (existingEntry != null) {
-            // Safety check: ensure entry belongs to current user
-            if (!existingEntry.getUser().getId().equals(currentUser.getId())) {
-                return "redirect:/entries";
-            }
-            
-            if (imageFile != null && !imageFile.isEmpty()) {
-                String filename = fileStorageService.store(imageFile);
-                habitEntry.setImageFilename(filename);
-            } else {
-                habitEntry.setImageFilename(existingEntry.getImageFilename());
-            }
-            
-            // Preserve user ownership
-            habitEntry.setUser(existingEntry.getUser());
+        // Only a newly uploaded image replaces the stored one
+        if (imageFile != null && !imageFile.isEmpty()) {
+            habitEntry.setImageFilename(fileStorageService.store(imageFile));
+        } else {
+            habitEntry.setImageFilename(null);
         }
         
-        habitEntryService.saveEntry(habitEntry);
+        // Ownership is enforced by the update itself: an entry of another user is not matched
+        habitEntryService.updateEntry(currentUser.getId(), id, habitEntry);
         return "redirect:/entries";
     }
     
     /**
      * Deletes a habit entry by ID.
-     * Ensures the entry belongs to the current user before allowing deletion.
+     * Only entries of the current user are deleted.
      */
     @PostMapping("/{id}/delete")
-    public String deleteEntry(@PathVariable Long id, Principal principal) {
-        User currentUser = userRepository.findByUsername(principal.getName()).orElse(null);
+    public String deleteEntry(@PathVariable Long id, @CurrentUser User currentUser) {
         if (currentUser == null) {
             return "redirect:/login";
         }
         
-        // Safety check: ensure entry belongs to current user before deleting
-        habitEntryService.getEntryById(id).ifPresent(entry -> {
-            if (entry.getUser().getId().equals(currentUser.getId())) {
-                habitEntryService.deleteEntry(id);
-            }
-        });
+        // Deletes only if the entry belongs to the current user
+        habitEntryService.deleteEntry(currentUser.getId(), id);
         
         return "redirect:/entries";
     }
     
+    /**
+     * Deletes the selected entries of the current user.
+     */
+    @PostMapping("/bulk/delete")
+    public String bulkDelete(@RequestParam(value = "ids", required = false) List<Long> ids,
+                             @CurrentUser User currentUser,
+                             RedirectAttributes redirectAttributes) {
+        if (currentUser == null) {
+            return "redirect:/login";
+        }
+        if (ids != null && !ids.isEmpty()) {
+            int deleted = habitEntryService.deleteEntries(currentUser.getId(), ids);
+            redirectAttributes.addFlashAttribute("bulkMessage", deleted + " entries deleted");
+        }
+        return "redirect:/entries";
+    }
+    
+    /**
+     * Moves the selected entries of the current user to another category.
+     */
+    @PostMapping("/bulk/category")
+    public String bulkChangeCategory(@RequestParam(value = "ids", required = false) List<Long> ids,
+                                     @RequestParam(value = "categoryId", required = false) Long categoryId,
+                                     @CurrentUser User currentUser,
+                                     RedirectAttributes redirectAttributes) {
+        if (currentUser == null) {
+            return "redirect:/login";
+        }
+        Category category = categoryId != null ? categoryRegistry.findById(categoryId).orElse(null) : null;
+        if (category == null) {
+            redirectAttributes.addFlashAttribute("bulkError", "Choose a category to move the entries to");
+        } else if (ids != null && !ids.isEmpty()) {
+            int updated = habitEntryService.changeCategory(currentUser.getId(), ids, category);
+            redirectAttributes.addFlashAttribute("bulkMessage", updated + " entries moved to " +
+                    (category.getDisplayName() != null ? category.getDisplayName() : category.getName()));
+        }
+        return "redirect:/entries";
+    }
+    
+    /**
+     * Moves the selected entries of the current user by a number of days (negative for earlier).
+     */
+    @PostMapping("/bulk/shift-date")
+    public String bulkShiftDate(@RequestParam(value = "ids", required = false) List<Long> ids,
+                                @RequestParam(value = "days", required = false) Integer days,
+                                @CurrentUser User currentUser,
+                                RedirectAttributes redirectAttributes) {
+        if (currentUser == null) {
+            return "redirect:/login";
+        }
+        if (days == null || days == 0 || Math.abs(days) > MAX_SHIFT_DAYS) {
+            redirectAttributes.addFlashAttribute("bulkError",
+                    "Shift by a number of days between -" + MAX_SHIFT_DAYS + " and " + MAX_SHIFT_DAYS);
+        } else if (ids != null && !ids.isEmpty()) {
+            int updated = habitEntryService.shiftDates(currentUser.getId(), ids, days);
+            redirectAttributes.addFlashAttribute("bulkMessage", updated + " entries moved by " + days + " days");
+        }
+        return "redirect:/entries";
+    }
 }
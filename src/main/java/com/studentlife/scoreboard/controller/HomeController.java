@@ -1,14 +1,24 @@
 package com.studentlife.scoreboard.controller;
 
+import com.studentlife.scoreboard.dto.DashboardSnapshot;
+import com.studentlife.scoreboard.dto.RangeStats;
+import com.studentlife.scoreboard.dto.StatsBucket;
+import com.studentlife.scoreboard.dto.StatsRange;
 import com.studentlife.scoreboard.entity.User;
+import com.studentlife.scoreboard.security.CurrentUser;
 import com.studentlife.scoreboard.service.HabitEntryService;
-import com.studentlife.scoreboard.repository.UserRepository;
+import com.studentlife.scoreboard.service.UserDataVersions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.security.Principal;
 import java.time.LocalDate;
 
 /**
@@ -23,7 +33,7 @@ public class HomeController {
     private HabitEntryService habitEntryService;
     
     @Autowired
-    private UserRepository userRepository;
+    private UserDataVersions userDataVersions;
     
     /**
      * Displays the landing/home page.
@@ -36,43 +46,83 @@ public class HomeController {
     /**
      * Displays the main dashboard with today's and week's statistics.
      * All metrics are filtered for the current authenticated user only.
+     * Answers 304 while the user's data and the date are unchanged since the client's copy.
      */
     @GetMapping("/dashboard")
-    public String dashboard(Principal principal, Model model) {
-        // Get current authenticated user
-        User currentUser = userRepository.findByUsername(principal.getName()).orElse(null);
+    public String dashboard(@CurrentUser User currentUser, Model model, ServletWebRequest webRequest) {
         if (currentUser == null) {
             return "redirect:/login";
         }
+        if (ConditionalGet.notModified(webRequest, userDataVersions.etag(currentUser.getId(), LocalDate.now()))) {
+            return null;
+        }
         
-        LocalDate today = LocalDate.now();
+        // Load today's and the week's metrics once - filtered by current user
+        DashboardSnapshot snapshot = habitEntryService.getDashboardSnapshot(currentUser);
         
-        // Aggregate today's metrics - filtered by current user
-        model.addAttribute("today", today);
-        model.addAttribute("todayTotalPoints", habitEntryService.getTodayTotalPoints(currentUser));
-        model.addAttribute("weekTotalPoints", habitEntryService.getWeekTotalPoints(currentUser));
-        model.addAttribute("pointsByType", habitEntryService.getPointsByTypeForWeek(currentUser));
-        model.addAttribute("balanceScore", habitEntryService.calculateBalanceScore(currentUser));
-        model.addAttribute("todayEntries", habitEntryService.getTodayEntries(currentUser));
-        model.addAttribute("todayCount", habitEntryService.getTodayEntryCount(currentUser));
+        model.addAttribute("today", snapshot.getToday());
+        model.addAttribute("todayTotalPoints", snapshot.getTodayTotalPoints());
+        model.addAttribute("weekTotalPoints", snapshot.getWeekTotalPoints());
+        model.addAttribute("pointsByType", snapshot.getPointsByType());
+        model.addAttribute("balanceScore", snapshot.getBalanceScore());
+        model.addAttribute("todayEntries", snapshot.getTodayEntries());
+        model.addAttribute("todayCount", snapshot.getTodayCount());
         
         return "dashboard";
     }
     
     /**
-     * Displays weekly statistics page with breakdown by habit type.
+     * Displays the statistics page for a preset range (week, month, semester or year),
+     * with totals by habit type and a breakdown over time.
      * All statistics are filtered for the current authenticated user only.
+     * Answers 304 while the user's data and the date are unchanged since the client's copy.
      */
     @GetMapping("/stats")
-    public String stats(Principal principal, Model model) {
-        // Get current authenticated user
-        User currentUser = userRepository.findByUsername(principal.getName()).orElse(null);
+    public String stats(@RequestParam(required = false) String range, @CurrentUser User currentUser, Model model,
+                        ServletWebRequest webRequest) {
         if (currentUser == null) {
             return "redirect:/login";
         }
+        LocalDate today = LocalDate.now();
+        if (ConditionalGet.notModified(webRequest, userDataVersions.etag(currentUser.getId(), today))) {
+            return null;
+        }
         
-        // Weekly stats filtered by current user
-        model.addAttribute("weeklyStats", habitEntryService.getWeeklyStats(currentUser));
+        StatsRange statsRange = StatsRange.fromParam(range);
+        RangeStats rangeStats = habitEntryService.getRangeStats(
+                currentUser, statsRange.startDate(today), today, statsRange.getBucket());
+        
+        model.addAttribute("categoryTotals", rangeStats.getTotals());
+        model.addAttribute("rangeStats", rangeStats);
+        model.addAttribute("selectedRange", statsRange);
+        model.addAttribute("ranges", StatsRange.values());
         return "stats";
     }
+    
+    /**
+     * Returns per-bucket, per-category stats for an arbitrary date range as JSON.
+     * Bucket is one of day, week or month.
+     */
+    @GetMapping("/stats/data")
+    @ResponseBody
+    public RangeStats statsData(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                @RequestParam(defaultValue = "day") String bucket,
+                                @CurrentUser User currentUser,
+                                ServletWebRequest webRequest) {
+        if (currentUser == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        // The range is explicit, so only the user's data decides whether the result changed
+        if (ConditionalGet.notModified(webRequest, userDataVersions.etag(currentUser.getId(), null))) {
+            return null;
+        }
+        
+        try {
+            StatsBucket statsBucket = StatsBucket.valueOf(bucket.toUpperCase());
+            return habitEntryService.getRangeStats(currentUser, startDate, endDate, statsBucket);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package com.studentlife.scoreboard.dto;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of everything the dashboard renders for one user.
+ * Built from a single load of today's entries and the week's per-category totals,
+ * so every derived figure (points, count, balance score) comes from the same data.
+ */
+public class DashboardSnapshot {
+
+    private final LocalDate today;
+    private final List<HabitEntrySummary> todayEntries;
+    private final int todayTotalPoints;
+    private final long todayCount;
+    private final int weekTotalPoints;
+    private final Map<String, Integer> pointsByType;
+    private final int balanceScore;
+
+    public DashboardSnapshot(LocalDate today,
+                             List<HabitEntrySummary> todayEntries,
+                             int todayTotalPoints,
+                             long todayCount,
+                             int weekTotalPoints,
+                             Map<String, Integer> pointsByType,
+                             int balanceScore) {
+        this.today = today;
+        this.todayEntries = Collections.unmodifiableList(todayEntries);
+        this.todayTotalPoints = todayTotalPoints;
+        this.todayCount = todayCount;
+        this.weekTotalPoints = weekTotalPoints;
+        this.pointsByType = Collections.unmodifiableMap(pointsByType);
+        this.balanceScore = balanceScore;
+    }
+
+    public LocalDate getToday() {
+        return today;
+    }
+
+    public List<HabitEntrySummary> getTodayEntries() {
+        return todayEntries;
+    }
+
+    public int getTodayTotalPoints() {
+        return todayTotalPoints;
+    }
+
+    public long getTodayCount() {
+        return todayCount;
+    }
+
+    public int getWeekTotalPoints() {
+        return weekTotalPoints;
+    }
+
+    public Map<String, Integer> getPointsByType() {
+        return pointsByType;
+    }
+
+    public int getBalanceScore() {
+        return balanceScore;
+    }
+}
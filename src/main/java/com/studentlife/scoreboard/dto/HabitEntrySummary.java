@@ -0,0 +1,78 @@
+package com.studentlife.scoreboard.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only row for entry lists and the dashboard.
+ * Selected by JPQL constructor expressions with the category names joined in, so rendering
+ * a list loads no managed entities and issues no per-row category selects.
+ */
+public class HabitEntrySummary {
+
+    private final Long id;
+    private final LocalDate date;
+    private final String description;
+    private final Integer duration;
+    private final Integer score;
+    private final String notes;
+    private final String customLabel;
+    private final String imageFilename;
+    private final String categoryName;
+    private final String categoryDisplayName;
+
+    public HabitEntrySummary(Long id, LocalDate date, String description, Integer duration, Integer score,
+                             String notes, String customLabel, String imageFilename,
+                             String categoryName, String categoryDisplayName) {
+        this.id = id;
+        this.date = date;
+        this.description = description;
+        this.duration = duration;
+        this.score = score;
+        this.notes = notes;
+        this.customLabel = customLabel;
+        this.imageFilename = imageFilename;
+        this.categoryName = categoryName;
+        this.categoryDisplayName = categoryDisplayName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Integer getDuration() {
+        return duration;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public String getCustomLabel() {
+        return customLabel;
+    }
+
+    public String getImageFilename() {
+        return imageFilename;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    // Display name if set, otherwise the category's name; null for an uncategorized entry
+    public String getCategoryLabel() {
+        return categoryDisplayName != null ? categoryDisplayName : categoryName;
+    }
+}
@@ -0,0 +1,97 @@
+package com.studentlife.scoreboard.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many rows were read and written,
+ * and the rows that were rejected with the reason for each.
+ */
+public class ImportResult {
+
+    // Only the first rejected rows are kept so a bad file cannot exhaust memory
+    public static final int MAX_REPORTED_ERRORS = 500;
+
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    private String readError;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void rowRead() {
+        rowsRead++;
+    }
+
+    public void imported(int count) {
+        imported += count;
+    }
+
+    public void reject(long line, String message) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Why reading stopped before the end of the file, or null if the whole file was read
+    public String getReadError() {
+        return readError;
+    }
+
+    public void setReadError(String readError) {
+        this.readError = readError;
+    }
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    // True when more rows were rejected than are listed in errors
+    public boolean isErrorsTruncated() {
+        return rejected > errors.size();
+    }
+
+    /**
+     * A rejected row. Line is the 1-based line in the file (record number for JSON arrays).
+     */
+    public static class RowError {
+
+        private final long line;
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.studentlife.scoreboard.dto;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a list ordered by (date desc, id desc), with the cursor to continue after it.
+ * Cursors have the form {@code yyyy-MM-dd:id} and point at the last item of the previous page.
+ */
+public class KeysetPage<T> {
+
+    // Cursor that sorts before every real row, used for the first page
+    public static final LocalDate FIRST_PAGE_DATE = LocalDate.of(9999, 12, 31);
+    public static final long FIRST_PAGE_ID = Long.MAX_VALUE;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    // Cursor for the following page, or null when this is the last page
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+
+    public static String cursorOf(LocalDate date, Long id) {
+        return date + ":" + id;
+    }
+
+    /**
+     * Parses a cursor into [date, id], falling back to the first page for missing or malformed values.
+     */
+    public static Object[] parseCursor(String cursor) {
+        if (cursor != null) {
+            int separator = cursor.indexOf(':');
+            if (separator > 0) {
+                try {
+                    return new Object[]{
+                            LocalDate.parse(cursor.substring(0, separator)),
+                            Long.parseLong(cursor.substring(separator + 1))
+                    };
+                } catch (RuntimeException e) {
+                    // Treat a tampered cursor as a request for the first page
+                }
+            }
+        }
+        return new Object[]{FIRST_PAGE_DATE, FIRST_PAGE_ID};
+    }
+}
@@ -0,0 +1,91 @@
+package com.studentlife.scoreboard.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a sweep for uploaded files that no entry references.
+ * In a dry run nothing is deleted and the orphan counts are what a real run would remove.
+ */
+public class OrphanSweepReport {
+
+    // Only the first orphans are listed so a large backlog cannot exhaust memory
+    public static final int MAX_REPORTED_FILES = 500;
+
+    private final boolean dryRun;
+    private long filesScanned;
+    private long orphanedFiles;
+    private long orphanedBytes;
+    private long recentFilesSkipped;
+    private long failures;
+    private long elapsedMillis;
+    private final List<String> orphans = new ArrayList<>();
+
+    public OrphanSweepReport(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public void fileScanned() {
+        filesScanned++;
+    }
+
+    public void orphan(String path, long size) {
+        orphanedFiles++;
+        orphanedBytes += size;
+        if (orphans.size() < MAX_REPORTED_FILES) {
+            orphans.add(path);
+        }
+    }
+
+    public void recentFileSkipped() {
+        recentFilesSkipped++;
+    }
+
+    public void failure() {
+        failures++;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public long getFilesScanned() {
+        return filesScanned;
+    }
+
+    // Files deleted, or that would be deleted in a dry run
+    public long getOrphanedFiles() {
+        return orphanedFiles;
+    }
+
+    public long getOrphanedBytes() {
+        return orphanedBytes;
+    }
+
+    // Unreferenced files still inside the grace period for in-flight uploads
+    public long getRecentFilesSkipped() {
+        return recentFilesSkipped;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Paths relative to the upload directory
+    public List<String> getOrphans() {
+        return Collections.unmodifiableList(orphans);
+    }
+
+    public boolean isOrphansTruncated() {
+        return orphanedFiles > orphans.size();
+    }
+}
@@ -0,0 +1,90 @@
+package com.studentlife.scoreboard.dto;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-bucket, per-category minute sums and score averages for one user over a date range.
+ * Categories appear in every bucket (with zero minutes when nothing was logged),
+ * keyed by display name in category id order.
+ */
+public class RangeStats {
+
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final StatsBucket bucket;
+    private final List<String> categories;
+    private final List<Bucket> buckets;
+    private final Map<String, Integer> totals;
+
+    public RangeStats(LocalDate startDate, LocalDate endDate, StatsBucket bucket,
+                      List<String> categories, List<Bucket> buckets, Map<String, Integer> totals) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.bucket = bucket;
+        this.categories = Collections.unmodifiableList(categories);
+        this.buckets = Collections.unmodifiableList(buckets);
+        this.totals = Collections.unmodifiableMap(totals);
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public StatsBucket getBucket() {
+        return bucket;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    // Minutes per category over the whole range
+    public Map<String, Integer> getTotals() {
+        return totals;
+    }
+
+    /**
+     * One bucket of the range. Average scores are null for categories with no scored entries.
+     */
+    public static class Bucket {
+
+        private final LocalDate start;
+        private final String label;
+        private final Map<String, Integer> minutes;
+        private final Map<String, Double> averageScores;
+
+        public Bucket(LocalDate start, String label, Map<String, Integer> minutes, Map<String, Double> averageScores) {
+            this.start = start;
+            this.label = label;
+            this.minutes = Collections.unmodifiableMap(minutes);
+            this.averageScores = Collections.unmodifiableMap(averageScores);
+        }
+
+        public LocalDate getStart() {
+            return start;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Map<String, Integer> getMinutes() {
+            return minutes;
+        }
+
+        public Map<String, Double> getAverageScores() {
+            return averageScores;
+        }
+    }
+}
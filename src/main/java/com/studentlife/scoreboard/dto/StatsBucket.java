@@ -0,0 +1,53 @@
+package com.studentlife.scoreboard.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Granularity of a range stats query.
+ * Weeks start on Monday, matching the ISO week numbers the database groups by.
+ */
+public enum StatsBucket {
+    DAY,
+    WEEK,
+    MONTH;
+
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMM yyyy");
+
+    // First day of the bucket that contains the given date
+    public LocalDate startOf(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+
+    // First day of the bucket after the one starting at bucketStart
+    public LocalDate next(LocalDate bucketStart) {
+        switch (this) {
+            case WEEK:
+                return bucketStart.plusWeeks(1);
+            case MONTH:
+                return bucketStart.plusMonths(1);
+            default:
+                return bucketStart.plusDays(1);
+        }
+    }
+
+    public String label(LocalDate bucketStart) {
+        switch (this) {
+            case WEEK:
+                return "Week of " + bucketStart;
+            case MONTH:
+                return bucketStart.format(MONTH_LABEL);
+            default:
+                return bucketStart.toString();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.studentlife.scoreboard.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Preset date ranges offered on the stats page, each with a bucket size that keeps
+ * the chart readable. All ranges end today.
+ */
+public enum StatsRange {
+    WEEK("Last 7 days", StatsBucket.DAY),
+    MONTH("Last 30 days", StatsBucket.DAY),
+    SEMESTER("Last 6 months", StatsBucket.WEEK),
+    YEAR("Last 12 months", StatsBucket.MONTH);
+
+    private final String label;
+    private final StatsBucket bucket;
+
+    StatsRange(String label, StatsBucket bucket) {
+        this.label = label;
+        this.bucket = bucket;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public StatsBucket getBucket() {
+        return bucket;
+    }
+
+    public LocalDate startDate(LocalDate today) {
+        switch (this) {
+            case WEEK:
+                return today.minusDays(6);
+            case MONTH:
+                return today.minusDays(29);
+            case SEMESTER:
+                return today.minusMonths(6).plusDays(1);
+            default:
+                return today.minusMonths(12).withDayOfMonth(1).plusMonths(1);
+        }
+    }
+
+    // Resolves a request parameter, falling back to the week view
+    public static StatsRange fromParam(String value) {
+        if (value != null) {
+            for (StatsRange range : values()) {
+                if (range.name().equalsIgnoreCase(value)) {
+                    return range;
+                }
+            }
+        }
+        return WEEK;
+    }
+}
@@ -0,0 +1,70 @@
+package com.studentlife.scoreboard.dto;
+
+/**
+ * Disk usage of uploaded images and what deduplication saves.
+ * Referenced bytes are what storing one copy per entry would take; stored bytes are what
+ * the distinct files actually take.
+ */
+public class UploadStorageReport {
+
+    private long files;
+    private long references;
+    private long storedBytes;
+    private long referencedBytes;
+    private long missingFiles;
+
+    // Since startup
+    private long deduplicatedUploads;
+    private long uploadBytesSaved;
+
+    public void addFile(long size, long referenceCount) {
+        files++;
+        references += referenceCount;
+        storedBytes += size;
+        referencedBytes += size * referenceCount;
+    }
+
+    public void addMissingFile() {
+        missingFiles++;
+    }
+
+    public long getFiles() {
+        return files;
+    }
+
+    public long getReferences() {
+        return references;
+    }
+
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    public long getReferencedBytes() {
+        return referencedBytes;
+    }
+
+    public long getBytesSaved() {
+        return referencedBytes - storedBytes;
+    }
+
+    public long getMissingFiles() {
+        return missingFiles;
+    }
+
+    public long getDeduplicatedUploads() {
+        return deduplicatedUploads;
+    }
+
+    public void setDeduplicatedUploads(long deduplicatedUploads) {
+        this.deduplicatedUploads = deduplicatedUploads;
+    }
+
+    public long getUploadBytesSaved() {
+        return uploadBytesSaved;
+    }
+
+    public void setUploadBytesSaved(long uploadBytesSaved) {
+        this.uploadBytesSaved = uploadBytesSaved;
+    }
+}
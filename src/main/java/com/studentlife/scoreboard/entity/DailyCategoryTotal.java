@@ -0,0 +1,107 @@
+package com.studentlife.scoreboard.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Per-user, per-day, per-category rollup of habit entries.
+ * Maps to the user_daily_category_totals table and is kept in step with habit_entries
+ * so stats can be read from a handful of small rows instead of every entry.
+ */
+@Entity
+@Table(name = "user_daily_category_totals",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_totals_user_date_category",
+                                             columnNames = {"user_id", "date", "category_id"}))
+public class DailyCategoryTotal {
+
+    // Primary key
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // User the totals belong to
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Day the entries were recorded for
+    @Column(nullable = false)
+    private LocalDate date;
+
+    // Category the totals are grouped under
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    private Category category;
+
+    // Sum of entry durations in minutes
+    @Column(nullable = false)
+    private Integer minutes = 0;
+
+    // Number of entries rolled into this row
+    @Column(nullable = false)
+    private Integer entryCount = 0;
+
+    // Sum of entry scores (unscored entries count as 0)
+    @Column(nullable = false)
+    private Integer scoreSum = 0;
+
+    // Default constructor for JPA
+    public DailyCategoryTotal() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public void setCategory(Category category) {
+        this.category = category;
+    }
+
+    public Integer getMinutes() {
+        return minutes;
+    }
+
+    public void setMinutes(Integer minutes) {
+        this.minutes = minutes;
+    }
+
+    public Integer getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(Integer entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public Integer getScoreSum() {
+        return scoreSum;
+    }
+
+    public void setScoreSum(Integer scoreSum) {
+        this.scoreSum = scoreSum;
+    }
+}
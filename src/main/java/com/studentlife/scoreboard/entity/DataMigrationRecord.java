@@ -0,0 +1,108 @@
+package com.studentlife.scoreboard.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Ledger row for one data migration.
+ * Maps to the data_migrations table; a migration whose row is COMPLETED is never run again,
+ * and a RUNNING row left behind by a crash resumes after its checkpoint.
+ */
+@Entity
+@Table(name = "data_migrations")
+public class DataMigrationRecord {
+
+    public enum Status {
+        RUNNING, COMPLETED
+    }
+
+    // Migration version, also the order migrations run in
+    @Id
+    private Integer version;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    // Last entity id processed by a chunked migration
+    private Long checkpoint;
+
+    // Rows processed so far, across restarts
+    @Column(nullable = false)
+    private Long rowsProcessed = 0L;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    // Default constructor for JPA
+    public DataMigrationRecord() {}
+
+    public DataMigrationRecord(Integer version, String description) {
+        this.version = version;
+        this.description = description;
+        this.status = Status.RUNNING;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(Long checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public Long getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    public void setRowsProcessed(Long rowsProcessed) {
+        this.rowsProcessed = rowsProcessed;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -12,7 +12,14 @@ import java.time.LocalDate;
  * Contains core habit tracking data: type, duration, date, score, and optional metadata.
  */
 @Entity
-@Table(name = "habit_entries")
+@Table(name = "habit_entries",
+       indexes = {
+           // Per-user keyset pages ordered by (date, id)
+           @Index(name = "idx_habit_entries_user_date_id", columnList = "user_id, date, id"),
+           // Per-user keyset pages filtered by category
+           @Index(name = "idx_habit_entries_user_category_date", columnList = "user_id, category_id, date"),
+           @Index(name = "idx_habit_entries_image_filename", columnList = "image_filename")
+       })
 public class HabitEntry {
     
     // Primary key
@@ -0,0 +1,32 @@
+package com.studentlife.scoreboard.migration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Files entries created before categories existed under STUDY, in a single statement.
+ */
+@Component
+public class AssignDefaultCategoryMigration implements SetBasedMigration {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Assign STUDY to entries without a category";
+    }
+
+    @Override
+    public long apply() {
+        return jdbcTemplate.update(
+                "UPDATE habit_entries SET category_id = (SELECT c.id FROM categories c WHERE c.name = 'STUDY') " +
+                "WHERE category_id IS NULL");
+    }
+}
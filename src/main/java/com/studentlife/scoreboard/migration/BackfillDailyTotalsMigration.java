@@ -0,0 +1,30 @@
+package com.studentlife.scoreboard.migration;
+
+import com.studentlife.scoreboard.service.DailyTotalsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Populates the daily rollup from the entries that existed before it was introduced.
+ */
+@Component
+public class BackfillDailyTotalsMigration implements SetBasedMigration {
+
+    @Autowired
+    private DailyTotalsService dailyTotalsService;
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Backfill daily category totals";
+    }
+
+    @Override
+    public long apply() {
+        return dailyTotalsService.rebuildAll();
+    }
+}
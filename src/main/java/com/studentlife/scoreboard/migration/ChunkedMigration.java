@@ -0,0 +1,43 @@
+package com.studentlife.scoreboard.migration;
+
+/**
+ * A migration that walks a table in primary key order, one chunk per transaction.
+ * The last id of each chunk is checkpointed in the ledger in the same transaction,
+ * so a migration interrupted by a crash resumes where it stopped.
+ */
+public interface ChunkedMigration extends DataMigration {
+
+    /**
+     * Processes up to chunkSize rows with an id greater than afterId.
+     * Returns {@link Chunk#DONE} once there are no rows left.
+     */
+    Chunk migrateChunk(long afterId, int chunkSize);
+
+    /**
+     * Outcome of one chunk: the last id it covered and how many rows it read.
+     */
+    final class Chunk {
+
+        public static final Chunk DONE = new Chunk(-1, 0);
+
+        private final long lastId;
+        private final int rows;
+
+        public Chunk(long lastId, int rows) {
+            this.lastId = lastId;
+            this.rows = rows;
+        }
+
+        public long getLastId() {
+            return lastId;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public boolean isDone() {
+            return rows == 0;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.studentlife.scoreboard.migration;
+
+/**
+ * A one-time data fix, recorded in the data_migrations ledger once it completes.
+ * Implement {@link SetBasedMigration} when the fix can be expressed as a few statements,
+ * or {@link ChunkedMigration} when rows need Java logic and must be processed in batches.
+ */
+public interface DataMigration {
+
+    // Unique, increasing version; migrations run in ascending order
+    int getVersion();
+
+    String getDescription();
+}
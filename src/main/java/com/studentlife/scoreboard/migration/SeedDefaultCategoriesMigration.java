@@ -0,0 +1,68 @@
+package com.studentlife.scoreboard.migration;
+
+import com.studentlife.scoreboard.entity.Category;
+import com.studentlife.scoreboard.repository.CategoryRepository;
+import com.studentlife.scoreboard.service.CategoryRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates the built-in habit categories that are missing.
+ */
+@Component
+public class SeedDefaultCategoriesMigration implements SetBasedMigration {
+
+    private static final List<String[]> DEFAULT_CATEGORIES = List.of(
+        new String[]{"STUDY", "Study"},
+        new String[]{"EXERCISE", "Exercise"},
+        new String[]{"NAP", "Nap"},
+        new String[]{"NUTRITION", "Nutrition"},
+        new String[]{"SOCIAL", "Social"},
+        new String[]{"MINDFULNESS", "Mindfulness"},
+        new String[]{"CREATIVE", "Creative"},
+        new String[]{"READING", "Reading"},
+        new String[]{"OTHER", "Other"}
+    );
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Seed default categories";
+    }
+
+    @Override
+    public long apply() {
+        // One query for the existing names, then insert only the missing ones
+        Set<String> existing = new HashSet<>();
+        for (Category category : categoryRepository.findAll()) {
+            existing.add(category.getName());
+        }
+
+        long added = 0;
+        for (String[] catData : DEFAULT_CATEGORIES) {
+            if (!existing.contains(catData[0])) {
+                categoryRepository.save(new Category(catData[0], catData[1]));
+                added++;
+            }
+        }
+
+        if (added > 0) {
+            categoryRegistry.reload();
+        }
+        return added;
+    }
+}
@@ -0,0 +1,14 @@
+package com.studentlife.scoreboard.migration;
+
+/**
+ * A migration applied in one transaction together with its ledger entry.
+ */
+public interface SetBasedMigration extends DataMigration {
+
+    /**
+     * Applies the migration.
+     *
+     * @return the number of rows changed
+     */
+    long apply();
+}
@@ -0,0 +1,71 @@
+package com.studentlife.scoreboard.repository;
+
+import com.studentlife.scoreboard.entity.DailyCategoryTotal;
+import com.studentlife.scoreboard.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the user_daily_category_totals rollup.
+ * Maintenance statements are set-based and keyed by habit entry ids, so the rollup
+ * can be adjusted in the same transaction as the entry write without loading entities.
+ */
+@Repository
+public interface DailyCategoryTotalRepository extends JpaRepository<DailyCategoryTotal, Long> {
+
+    // Non-empty rollup rows for a user within a date range
+    // Each row is [date, category id, minutes]
+    @Query("SELECT t.date, t.category.id, t.minutes FROM DailyCategoryTotal t " +
+           "WHERE t.user = :user AND t.date BETWEEN :startDate AND :endDate AND t.entryCount > 0")
+    List<Object[]> findMinutesByUserAndDateRange(@Param("user") User user,
+                                                 @Param("startDate") LocalDate startDate,
+                                                 @Param("endDate") LocalDate endDate);
+
+    // Add the given entries' current values to their rollup rows, creating missing rows
+    // A single upsert on the unique (user, date, category) key, so concurrent writers adding
+    // the first entry of a day and category cannot both insert the row; keys are taken in order
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_category_totals (user_id, date, category_id, minutes, entry_count, score_sum) " +
+                   "SELECT h.user_id, h.date, h.category_id, SUM(h.duration), COUNT(*), COALESCE(SUM(h.score), 0) " +
+                   "FROM habit_entries h WHERE h.user_id = :userId AND h.id IN (:entryIds) AND h.category_id IS NOT NULL " +
+                   "GROUP BY h.user_id, h.date, h.category_id ORDER BY h.date, h.category_id " +
+                   "ON DUPLICATE KEY UPDATE minutes = minutes + VALUES(minutes), " +
+                   "entry_count = entry_count + VALUES(entry_count), score_sum = score_sum + VALUES(score_sum)",
+           nativeQuery = true)
+    int addEntries(@Param("userId") Long userId, @Param("entryIds") Collection<Long> entryIds);
+
+    // Remove the given entries' current values from their rollup rows
+    @Modifying
+    @Query(value = "UPDATE user_daily_category_totals t SET " +
+                   "minutes = minutes - (SELECT COALESCE(SUM(h.duration), 0) FROM habit_entries h " +
+                   "WHERE h.user_id = t.user_id AND h.date = t.date AND h.category_id = t.category_id AND h.id IN (:entryIds)), " +
+                   "entry_count = entry_count - (SELECT COUNT(*) FROM habit_entries h " +
+                   "WHERE h.user_id = t.user_id AND h.date = t.date AND h.category_id = t.category_id AND h.id IN (:entryIds)), " +
+                   "score_sum = score_sum - (SELECT COALESCE(SUM(h.score), 0) FROM habit_entries h " +
+                   "WHERE h.user_id = t.user_id AND h.date = t.date AND h.category_id = t.category_id AND h.id IN (:entryIds)) " +
+                   "WHERE t.user_id = :userId AND EXISTS (SELECT 1 FROM habit_entries h " +
+                   "WHERE h.user_id = t.user_id AND h.date = t.date AND h.category_id = t.category_id AND h.id IN (:entryIds))",
+           nativeQuery = true)
+    int subtractEntries(@Param("userId") Long userId, @Param("entryIds") Collection<Long> entryIds);
+
+    // Clear the whole rollup ahead of a rebuild
+    @Modifying
+    @Query(value = "DELETE FROM user_daily_category_totals", nativeQuery = true)
+    int deleteAllRows();
+
+    // Recompute the whole rollup from habit_entries in one statement
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_category_totals (user_id, date, category_id, minutes, entry_count, score_sum) " +
+                   "SELECT h.user_id, h.date, h.category_id, SUM(h.duration), COUNT(*), COALESCE(SUM(h.score), 0) " +
+                   "FROM habit_entries h WHERE h.category_id IS NOT NULL " +
+                   "GROUP BY h.user_id, h.date, h.category_id",
+           nativeQuery = true)
+    int insertAllFromEntries();
+}
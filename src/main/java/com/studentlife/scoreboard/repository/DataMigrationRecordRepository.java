@@ -0,0 +1,12 @@
+package com.studentlife.scoreboard.repository;
+
+import com.studentlife.scoreboard.entity.DataMigrationRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the data_migrations ledger.
+ */
+@Repository
+public interface DataMigrationRecordRepository extends JpaRepository<DataMigrationRecord, Integer> {
+}
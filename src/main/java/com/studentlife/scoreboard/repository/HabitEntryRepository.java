@@ -1,15 +1,24 @@
 package com.studentlife.scoreboard.repository;
 
+import com.studentlife.scoreboard.dto.HabitEntrySummary;
 import com.studentlife.scoreboard.entity.HabitEntry;
 import com.studentlife.scoreboard.entity.Category;
 import com.studentlife.scoreboard.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for HabitEntry entity.
@@ -48,4 +57,172 @@ public interface HabitEntryRepository extends JpaRepository<HabitEntry, Long> {
     // Calculate average score for a user's entries on a specific date
     @Query("SELECT AVG(h.score) FROM HabitEntry h WHERE h.user = :user AND h.date = :date AND h.score IS NOT NULL")
     Double getAverageScoreByUserAndDate(@Param("user") User user, @Param("date") LocalDate date);
+    
+    // Owner-scoped writes - ownership is part of the WHERE clause, so each is a single statement
+    // and a row of another user is simply not matched. Each returns the number of rows affected.
+    
+    @Modifying
+    @Query("DELETE FROM HabitEntry h WHERE h.id = :id AND h.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
+    // Writes only the columns the entry form edits; the image is kept when imageFilename is null
+    // (the cast types the parameter, which Hibernate cannot infer from a null inside COALESCE)
+    @Modifying
+    @Query("UPDATE HabitEntry h SET h.category = :category, h.description = :description, h.date = :date, " +
+           "h.duration = :duration, h.score = :score, h.notes = :notes, h.customLabel = :customLabel, " +
+           "h.imageFilename = COALESCE(CAST(:imageFilename AS String), h.imageFilename) " +
+           "WHERE h.id = :id AND h.user.id = :userId")
+    int updateByIdAndUserId(@Param("id") Long id,
+                            @Param("userId") Long userId,
+                            @Param("category") Category category,
+                            @Param("description") String description,
+                            @Param("date") LocalDate date,
+                            @Param("duration") Integer duration,
+                            @Param("score") Integer score,
+                            @Param("notes") String notes,
+                            @Param("customLabel") String customLabel,
+                            @Param("imageFilename") String imageFilename);
+    
+    // Image of an entry, empty if the entry has none or does not belong to the user
+    @Query("SELECT h.imageFilename FROM HabitEntry h WHERE h.id = :id AND h.user.id = :userId")
+    Optional<String> findImageFilenameByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
+    // Bulk actions on a selection of the user's entries - one set-based statement per chunk of ids
+    
+    @Modifying
+    @Query("DELETE FROM HabitEntry h WHERE h.user.id = :userId AND h.id IN :ids")
+    int deleteByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("UPDATE HabitEntry h SET h.category = :category WHERE h.user.id = :userId AND h.id IN :ids")
+    int updateCategoryByUserIdAndIdIn(@Param("userId") Long userId,
+                                      @Param("ids") Collection<Long> ids,
+                                      @Param("category") Category category);
+    
+    // Moves each entry by the same number of days, earlier for a negative count
+    @Modifying
+    @Query("UPDATE HabitEntry h SET h.date = h.date + :days day WHERE h.user.id = :userId AND h.id IN :ids")
+    int shiftDateByUserIdAndIdIn(@Param("userId") Long userId,
+                                 @Param("ids") Collection<Long> ids,
+                                 @Param("days") int days);
+    
+    // Distinct images of the selected entries
+    @Query("SELECT DISTINCT h.imageFilename FROM HabitEntry h " +
+           "WHERE h.user.id = :userId AND h.id IN :ids AND h.imageFilename IS NOT NULL")
+    List<String> findImageFilenamesByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+    
+    // Summary rows for lists and the dashboard - read-only, with the category names joined in
+    
+    String SUMMARY_SELECT = "SELECT new com.studentlife.scoreboard.dto.HabitEntrySummary(" +
+            "h.id, h.date, h.description, h.duration, h.score, h.notes, h.customLabel, h.imageFilename, " +
+            "c.name, c.displayName) FROM HabitEntry h LEFT JOIN h.category c ";
+    
+    // A user's entries on a specific date, ordered by category and description
+    @Query(SUMMARY_SELECT + "WHERE h.user = :user AND h.date = :date ORDER BY c.name, h.description")
+    List<HabitEntrySummary> findSummariesByUserAndDate(@Param("user") User user, @Param("date") LocalDate date);
+    
+    // Keyset pages ordered by (date desc, id desc) - each starts strictly after the (afterDate, afterId) cursor
+    // The cursor is also written as a plain date bound so the user's indexes can seek to it, and the
+    // category is matched on the entry's own column rather than the joined category row
+    // Callers pass a Pageable only to limit the page size; no count or offset is used
+    
+    @Query(SUMMARY_SELECT + "WHERE h.user = :user " +
+           "AND h.date <= :afterDate AND (h.date < :afterDate OR h.id < :afterId) " +
+           "ORDER BY h.date DESC, h.id DESC")
+    List<HabitEntrySummary> findPageByUser(@Param("user") User user,
+                                           @Param("afterDate") LocalDate afterDate,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE h.user = :user AND h.category.id = :#{#category.id} " +
+           "AND h.date <= :afterDate AND (h.date < :afterDate OR h.id < :afterId) " +
+           "ORDER BY h.date DESC, h.id DESC")
+    List<HabitEntrySummary> findPageByUserAndCategory(@Param("user") User user,
+                                                      @Param("category") Category category,
+                                                      @Param("afterDate") LocalDate afterDate,
+                                                      @Param("afterId") Long afterId,
+                                                      Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE h.user = :user AND h.date BETWEEN :startDate AND :endDate " +
+           "AND h.date <= :afterDate AND (h.date < :afterDate OR h.id < :afterId) " +
+           "ORDER BY h.date DESC, h.id DESC")
+    List<HabitEntrySummary> findPageByUserAndDateRange(@Param("user") User user,
+                                                       @Param("startDate") LocalDate startDate,
+                                                       @Param("endDate") LocalDate endDate,
+                                                       @Param("afterDate") LocalDate afterDate,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE h.user = :user AND h.category.id = :#{#category.id} " +
+           "AND h.date BETWEEN :startDate AND :endDate " +
+           "AND h.date <= :afterDate AND (h.date < :afterDate OR h.id < :afterId) " +
+           "ORDER BY h.date DESC, h.id DESC")
+    List<HabitEntrySummary> findPageByUserAndCategoryAndDateRange(@Param("user") User user,
+                                                                  @Param("category") Category category,
+                                                                  @Param("startDate") LocalDate startDate,
+                                                                  @Param("endDate") LocalDate endDate,
+                                                                  @Param("afterDate") LocalDate afterDate,
+                                                                  @Param("afterId") Long afterId,
+                                                                  Pageable pageable);
+    
+    // Streams a user's entries for export, newest first, with the category fetched in the same row
+    // Category and date bounds are optional; rows are read in JDBC batches and never cached
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT h FROM HabitEntry h JOIN FETCH h.category WHERE h.user.id = :userId " +
+           "AND (:categoryId IS NULL OR h.category.id = :categoryId) " +
+           "AND h.date BETWEEN :startDate AND :endDate ORDER BY h.date DESC, h.id DESC")
+    Stream<HabitEntry> streamForExport(@Param("userId") Long userId,
+                                       @Param("categoryId") Long categoryId,
+                                       @Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate);
+    
+    // Range aggregations - grouped in the database, no entities are loaded
+    // Each row is [bucket key..., category id, total minutes, average score, scored entry count]
+    
+    // Per-day, per-category totals; key is [date]
+    @Query("SELECT h.date, h.category.id, SUM(h.duration), AVG(h.score), COUNT(h.score) FROM HabitEntry h " +
+           "WHERE h.user = :user AND h.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY h.date, h.category.id")
+    List<Object[]> aggregateByDay(@Param("user") User user,
+                                  @Param("startDate") LocalDate startDate,
+                                  @Param("endDate") LocalDate endDate);
+    
+    // Per-ISO-week, per-category totals; key is [first date in group]
+    // Grouping also by year and month keeps weeks that span a year boundary apart,
+    // so such a week can come back as two rows that the caller merges
+    @Query("SELECT MIN(h.date), h.category.id, SUM(h.duration), AVG(h.score), COUNT(h.score) FROM HabitEntry h " +
+           "WHERE h.user = :user AND h.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(h.date), MONTH(h.date), EXTRACT(WEEK FROM h.date), h.category.id")
+    List<Object[]> aggregateByWeek(@Param("user") User user,
+                                   @Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate);
+    
+    // Per-month, per-category totals; key is [year, month]
+    @Query("SELECT YEAR(h.date), MONTH(h.date), h.category.id, SUM(h.duration), AVG(h.score), COUNT(h.score) FROM HabitEntry h " +
+           "WHERE h.user = :user AND h.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(h.date), MONTH(h.date), h.category.id")
+    List<Object[]> aggregateByMonth(@Param("user") User user,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate);
+    
+    // Image references - uploads are content-addressed, so several entries can share one file
+    
+    // Number of entries that reference a stored upload
+    long countByImageFilename(String imageFilename);
+    
+    // Which of the given stored uploads are referenced by at least one entry
+    @Query("SELECT DISTINCT h.imageFilename FROM HabitEntry h WHERE h.imageFilename IN :filenames")
+    List<String> findReferencedImageFilenames(@Param("filenames") Collection<String> filenames);
+    
+    // Each row is [image filename, number of entries referencing it]
+    @Query("SELECT h.imageFilename, COUNT(h) FROM HabitEntry h WHERE h.imageFilename IS NOT NULL GROUP BY h.imageFilename")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamImageReferenceCounts();
 }
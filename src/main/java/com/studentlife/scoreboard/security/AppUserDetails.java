@@ -0,0 +1,24 @@
+package com.studentlife.scoreboard.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Authenticated principal that also carries the user's database id,
+ * so request handlers can identify the owner without querying the users table.
+ */
+public class AppUserDetails extends User {
+
+    private final Long id;
+
+    public AppUserDetails(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,18 @@
+package com.studentlife.scoreboard.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link com.studentlife.scoreboard.entity.User} handler parameter to be resolved
+ * as a reference to the authenticated user, or null when nobody is logged in.
+ * The reference is id-only: use it for ownership and query filters, not for reading user fields.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
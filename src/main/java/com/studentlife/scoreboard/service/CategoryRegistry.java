@@ -0,0 +1,131 @@
+package com.studentlife.scoreboard.service;
+
+import com.studentlife.scoreboard.entity.Category;
+import com.studentlife.scoreboard.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-process registry of habit categories.
+ * Categories only change when they are seeded, so they are loaded once into an immutable
+ * snapshot and served from memory. The Category objects handed out are shared; callers must
+ * not modify them. Each category gets a dense ordinal (0..N-1, in id order) that aggregations
+ * use as an array index. Readers never lock; reload() swaps in a new snapshot.
+ */
+@Component
+public class CategoryRegistry {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Returns the current snapshot, loading it on first use.
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reloads categories from the database. Call after categories are added or changed.
+     */
+    public synchronized void reload() {
+        snapshot = load();
+    }
+
+    public List<Category> getAll() {
+        return snapshot().getCategories();
+    }
+
+    public Optional<Category> findById(Long id) {
+        return snapshot().findById(id);
+    }
+
+    public Optional<Category> findByName(String name) {
+        return snapshot().findByName(name);
+    }
+
+    private Snapshot load() {
+        return new Snapshot(categoryRepository.findAll(Sort.by("id")));
+    }
+
+    /**
+     * Immutable view of all categories at one point in time.
+     */
+    public static final class Snapshot {
+
+        private final List<Category> categories;
+        private final Map<Long, Integer> ordinalsById;
+        private final Map<String, Category> byName;
+
+        Snapshot(List<Category> loaded) {
+            List<Category> copies = new ArrayList<>(loaded.size());
+            Map<Long, Integer> ordinals = new HashMap<>();
+            Map<String, Category> names = new HashMap<>();
+            for (Category category : loaded) {
+                // Copied so the snapshot holds no entity of the loading session; the copies are
+                // shared by every caller and must be treated as read-only
+                Category copy = new Category(category.getName(), category.getDisplayName());
+                copy.setId(category.getId());
+                ordinals.put(copy.getId(), copies.size());
+                names.put(copy.getName(), copy);
+                copies.add(copy);
+            }
+            this.categories = List.copyOf(copies);
+            this.ordinalsById = Map.copyOf(ordinals);
+            this.byName = Map.copyOf(names);
+        }
+
+        // All categories in ordinal order
+        public List<Category> getCategories() {
+            return categories;
+        }
+
+        public int size() {
+            return categories.size();
+        }
+
+        public Category get(int ordinal) {
+            return categories.get(ordinal);
+        }
+
+        // Dense index of the category, or -1 if it is not in this snapshot
+        public int ordinalOf(Long categoryId) {
+            Integer ordinal = categoryId != null ? ordinalsById.get(categoryId) : null;
+            return ordinal != null ? ordinal : -1;
+        }
+
+        public Optional<Category> findById(Long id) {
+            int ordinal = ordinalOf(id);
+            return ordinal >= 0 ? Optional.of(categories.get(ordinal)) : Optional.empty();
+        }
+
+        public Optional<Category> findByName(String name) {
+            return Optional.ofNullable(name != null ? byName.get(name) : null);
+        }
+
+        // Display name, falling back to the internal name
+        public String labelOf(int ordinal) {
+            Category category = categories.get(ordinal);
+            return category.getDisplayName() != null ? category.getDisplayName() : category.getName();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.studentlife.scoreboard.service;
+
+import com.studentlife.scoreboard.repository.DailyCategoryTotalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Service for the per-user daily category rollup.
+ * Entry writes call into this service inside their own transaction so the rollup
+ * never drifts from habit_entries; stats read the rollup instead of raw entries.
+ */
+@Service
+public class DailyTotalsService {
+
+    @Autowired
+    private DailyCategoryTotalRepository dailyCategoryTotalRepository;
+
+    @Autowired
+    private StatsWindowCache statsWindowCache;
+
+    @Autowired
+    private UserDataVersions userDataVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Adds precomputed values to the rollup row for a key, creating it if needed.
+    // Relies on the unique (user, date, category) key; the driver rewrites the batch into multi-row inserts.
+    private static final String UPSERT_DELTA_SQL =
+            "INSERT INTO user_daily_category_totals (user_id, date, category_id, minutes, entry_count, score_sum) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE minutes = minutes + VALUES(minutes), " +
+            "entry_count = entry_count + VALUES(entry_count), score_sum = score_sum + VALUES(score_sum)";
+
+    /**
+     * Adds the stored values of the given entries to the rollup.
+     * Must run after the entries are flushed, in the writer's transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addEntries(Long userId, Collection<Long> entryIds) {
+        if (entryIds.isEmpty()) {
+            return;
+        }
+        dailyCategoryTotalRepository.addEntries(userId, entryIds);
+    }
+
+    /**
+     * Removes the stored values of the given entries from the rollup.
+     * Must run before the entries are changed or deleted, in the writer's transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void subtractEntries(Long userId, Collection<Long> entryIds) {
+        if (entryIds.isEmpty()) {
+            return;
+        }
+        dailyCategoryTotalRepository.subtractEntries(userId, entryIds);
+    }
+
+    /**
+     * Adds values that were aggregated in memory to the rollup in one JDBC batch.
+     * Used by bulk writers that do not know the ids of the rows they inserted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDeltas(Long userId, Collection<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Always touch keys in the same order so concurrent writers do not deadlock
+        List<Delta> ordered = new ArrayList<>(deltas);
+        ordered.sort(Comparator.comparing(Delta::getDate).thenComparing(Delta::getCategoryId));
+
+        jdbcTemplate.batchUpdate(UPSERT_DELTA_SQL, ordered, ordered.size(), (ps, delta) -> {
+            ps.setLong(1, userId);
+            ps.setDate(2, Date.valueOf(delta.getDate()));
+            ps.setLong(3, delta.getCategoryId());
+            ps.setInt(4, delta.getMinutes());
+            ps.setInt(5, delta.getEntryCount());
+            ps.setInt(6, delta.getScoreSum());
+        });
+    }
+
+    /**
+     * Rebuilds the whole rollup from habit_entries.
+     *
+     * @return the number of rollup rows written
+     */
+    @Transactional
+    public int rebuildAll() {
+        dailyCategoryTotalRepository.deleteAllRows();
+        int rows = dailyCategoryTotalRepository.insertAllFromEntries();
+        statsWindowCache.invalidateAll();
+        userDataVersions.bumpAll();
+        return rows;
+    }
+
+    public boolean isEmpty() {
+        return dailyCategoryTotalRepository.count() == 0;
+    }
+
+    /**
+     * Change to one (date, category) rollup row of a user.
+     */
+    public static class Delta {
+
+        private final LocalDate date;
+        private final Long categoryId;
+        private int minutes;
+        private int entryCount;
+        private int scoreSum;
+
+        public Delta(LocalDate date, Long categoryId) {
+            this.date = date;
+            this.categoryId = categoryId;
+        }
+
+        // Counts one more entry towards this row
+        public void add(int duration, Integer score) {
+            minutes += duration;
+            entryCount++;
+            if (score != null) {
+                scoreSum += score;
+            }
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        public int getMinutes() {
+            return minutes;
+        }
+
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        public int getScoreSum() {
+            return scoreSum;
+        }
+    }
+}
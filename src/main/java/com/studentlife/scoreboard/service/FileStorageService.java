@@ -1,68 +1,388 @@
 package com.studentlife.scoreboard.service;
 
+import com.studentlife.scoreboard.dto.UploadStorageReport;
+import com.studentlife.scoreboard.repository.HabitEntryRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.MultipartConfigElement;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * Service for handling file uploads.
- * Stores uploaded images in the configured upload directory with UUID-based filenames.
- * Ensures the upload directory exists on application startup.
+ * Uploads are content-addressed: each file is stored under the SHA-256 of its bytes, so an image
+ * uploaded again is stored once and shared by every entry that references it. A file is deleted
+ * once no entry references it any more.
  */
 @Service
-public class FileStorageService {
+@Timed(value = "app.service", description = "Service call time, by class and method", histogram = true)
+public class FileStorageService implements MeterBinder {
     
-    // Directory path for storing uploaded files
-    @Value("${app.upload.dir}")
-    private String uploadDir;
+    // Read size while hashing a staged upload
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    
+    // Pending background releases beyond this are dropped and left to the orphaned-upload sweep
+    private static final int RELEASE_QUEUE_CAPACITY = 1000;
+    
+    @Autowired
+    private UploadDirectory uploadDirectory;
+    
+    @Autowired
+    private ImageVariantService imageVariantService;
+    
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+    
+    // Files touched more recently than this are never deleted on release,
+    // since a concurrent upload of the same content may be about to reference them
+    @Value("${app.upload.release-grace:PT10M}")
+    private Duration releaseGrace;
+    
+    @Autowired(required = false)
+    private MultipartConfigElement multipartConfig;
+    
+    // Whether multipart temp files are on the same filesystem as the uploads and can be renamed into place
+    private boolean renameMultipartFiles;
+    
+    private ThreadPoolExecutor releaseExecutor;
+    
+    private final AtomicLong deduplicatedUploads = new AtomicLong();
+    private final AtomicLong uploadBytesSaved = new AtomicLong();
     
-    // Initialize upload directory on application startup
     @PostConstruct
     public void init() {
+        releaseExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(RELEASE_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "upload-release");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        releaseExecutor.allowCoreThreadTimeOut(true);
+        
+        String location = multipartConfig != null ? multipartConfig.getLocation() : null;
+        if (location == null || location.isEmpty()) {
+            return;
+        }
         try {
-            Path uploadPath = Paths.get(uploadDir).toAbsolutePath();
-            Files.createDirectories(uploadPath);
+            renameMultipartFiles = Files.getFileStore(Path.of(location))
+                    .equals(Files.getFileStore(uploadDirectory.getIncoming()));
         } catch (IOException e) {
-            throw new RuntimeException("Failed to create upload directory", e);
+            System.err.println("Could not compare multipart and upload filesystems: " + e.getMessage());
         }
     }
     
+    @PreDestroy
+    public void shutdown() {
+        releaseExecutor.shutdown();
+    }
+    
     /**
-     * Stores an uploaded file with a UUID-based filename to prevent conflicts.
-     * Preserves the original file extension.
+     * Stores an uploaded file under the SHA-256 of its content.
+     * The multipart temp file is moved into the staging directory (a rename when both are on the
+     * same filesystem, otherwise a channel copy), then read once to compute the hash and detect
+     * the image type from its first bytes. It only appears under its final name once complete;
+     * if the same content is already stored, the existing file is reused.
      * 
      * @param file the MultipartFile to store
-     * @return the generated filename, or null if file is empty
+     * @return the stored filename, or null if file is empty
      */
     public String store(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             return null;
         }
         
+        Path staging = uploadDirectory.getIncoming().resolve(UUID.randomUUID() + ".part");
         try {
-            // Generate unique filename with original extension
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".")
-                    ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                    : "";
-            String uniqueFilename = UUID.randomUUID().toString() + extension;
+            stage(file, staging);
+            
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String detectedExtension;
+            long size;
+            try (FileChannel channel = FileChannel.open(staging, StandardOpenOption.READ)) {
+                size = channel.size();
+                ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+                channel.read(buffer);
+                buffer.flip();
+                detectedExtension = sniffExtension(buffer);
+                while (buffer.hasRemaining()) {
+                    digest.update(buffer);
+                    buffer.clear();
+                    channel.read(buffer);
+                    buffer.flip();
+                }
+                // Make the content durable before it becomes visible under its final name
+                channel.force(true);
+            }
             
-            // Save file to upload directory
-            Path uploadPath = Paths.get(uploadDir).toAbsolutePath();
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            String extension = detectedExtension != null ? detectedExtension : clientExtension(file);
+            String filename = HexFormat.of().formatHex(digest.digest()) + extension;
+            Path target = uploadDirectory.resolve(filename);
+            if (!moveIntoPlace(staging, target, size)) {
+                // Touch the shared file so a concurrent release leaves it alone
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            }
             
-            return uniqueFilename;
+            // Thumbnails are generated in the background; pages fall back to the original meanwhile
+            imageVariantService.enqueue(filename);
+            return filename;
         } catch (IOException e) {
             throw new RuntimeException("Failed to store file", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        } finally {
+            try {
+                Files.deleteIfExists(staging);
+            } catch (IOException e) {
+                System.err.println("Failed to delete staged upload " + staging + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Writes an upload to the staging path without streaming it through the heap.
+     */
+    private void stage(MultipartFile file, Path staging) throws IOException {
+        if (renameMultipartFiles) {
+            // The servlet container renames its temp file, or writes the bytes if the part was kept in memory
+            file.transferTo(staging.toFile());
+            return;
+        }
+        try (InputStream in = file.getInputStream();
+             FileChannel out = FileChannel.open(staging, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            if (in instanceof FileInputStream fileIn) {
+                // File to file, copied by the kernel where supported
+                FileChannel source = fileIn.getChannel();
+                long size = source.size();
+                long position = 0;
+                while (position < size) {
+                    position += source.transferTo(position, size - position, out);
+                }
+            } else {
+                ReadableByteChannel source = Channels.newChannel(in);
+                long position = 0;
+                long transferred;
+                while ((transferred = out.transferFrom(source, position, HASH_BUFFER_SIZE)) > 0) {
+                    position += transferred;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Extension for the image type identified by the file's leading bytes, or null if not recognized.
+     */
+    static String sniffExtension(ByteBuffer header) {
+        if (startsWith(header, 0xFF, 0xD8, 0xFF)) {
+            return ".jpg";
+        }
+        if (startsWith(header, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return ".png";
+        }
+        if (startsWith(header, 'G', 'I', 'F', '8')) {
+            return ".gif";
+        }
+        if (startsWith(header, 'R', 'I', 'F', 'F') && header.remaining() >= 12
+                && header.get(header.position() + 8) == 'W' && header.get(header.position() + 9) == 'E'
+                && header.get(header.position() + 10) == 'B' && header.get(header.position() + 11) == 'P') {
+            return ".webp";
+        }
+        if (startsWith(header, 'B', 'M')) {
+            return ".bmp";
+        }
+        return null;
+    }
+    
+    private static boolean startsWith(ByteBuffer buffer, int... bytes) {
+        if (buffer.remaining() < bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if ((buffer.get(buffer.position() + i) & 0xFF) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Extension of the client's filename, used when the content type is not recognized
+    private static String clientExtension(MultipartFile file) {
+        String originalFilename = file.getOriginalFilename();
+        String extension = originalFilename != null && originalFilename.contains(".")
+                ? originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase()
+                : "";
+        // Only keep extensions that are safe to use in a stored filename
+        return extension.matches("\\.[a-z0-9]{1,10}") ? extension : "";
+    }
+    
+    /**
+     * Moves a staged upload to its content-addressed name.
+     *
+     * @return true if the file was new, false if identical content was already stored
+     */
+    private boolean moveIntoPlace(Path staging, Path target, long size) throws IOException {
+        if (Files.exists(target)) {
+            recordDuplicate(size);
+            return false;
+        }
+        uploadDirectory.createParentDirectories(target);
+        try {
+            Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            // Another request stored the same content first
+            recordDuplicate(size);
+            return false;
+        }
+    }
+    
+    private void recordDuplicate(long size) {
+        deduplicatedUploads.incrementAndGet();
+        uploadBytesSaved.addAndGet(size);
+    }
+    
+    /**
+     * Deletes a stored file and its variants if no entry references it any more.
+     * Inside a transaction this happens after commit, so a rolled back change keeps its file.
+     */
+    public void release(String filename) {
+        if (filename == null) {
+            return;
+        }
+        afterCommit(() -> deleteIfUnreferenced(filename));
+    }
+    
+    /**
+     * Like {@link #release}, but the files are checked and deleted on a background thread,
+     * so a bulk delete does not wait for them. If the queue is full the files are left
+     * for the orphaned-upload sweep.
+     */
+    public void releaseInBackground(Collection<String> filenames) {
+        if (filenames.isEmpty()) {
+            return;
         }
+        List<String> pending = List.copyOf(filenames);
+        afterCommit(() -> {
+            try {
+                releaseExecutor.execute(() -> pending.forEach(this::deleteIfUnreferenced));
+            } catch (RuntimeException e) {
+                System.err.println("Upload release queue full, leaving " + pending.size() + " files to the sweep");
+            }
+        });
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    private void deleteIfUnreferenced(String filename) {
+        try {
+            if (!UploadDirectory.isSafeFilename(filename) || habitEntryRepository.countByImageFilename(filename) > 0) {
+                return;
+            }
+            Path path = uploadDirectory.resolve(filename);
+            if (!Files.exists(path)
+                    || Files.getLastModifiedTime(path).toInstant().isAfter(Instant.now().minus(releaseGrace))) {
+                return;
+            }
+            Files.deleteIfExists(path);
+            for (ImageVariantService.Variant variant : ImageVariantService.Variant.values()) {
+                Files.deleteIfExists(uploadDirectory.resolve(ImageVariantService.variantFilename(filename, variant)));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to release upload " + filename + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Number of entries that reference a stored file.
+     */
+    public long referenceCount(String filename) {
+        return habitEntryRepository.countByImageFilename(filename);
+    }
+    
+    /**
+     * Adds up stored and referenced upload sizes across all entries.
+     * Streams the per-file reference counts, so it is safe to run on large tables.
+     */
+    @Transactional(readOnly = true)
+    public UploadStorageReport getStorageReport() {
+        UploadStorageReport report = new UploadStorageReport();
+        try (Stream<Object[]> rows = habitEntryRepository.streamImageReferenceCounts()) {
+            rows.forEach(row -> {
+                String filename = (String) row[0];
+                long references = ((Number) row[1]).longValue();
+                try {
+                    Path path = UploadDirectory.isSafeFilename(filename) ? uploadDirectory.resolve(filename) : null;
+                    if (path != null && Files.isRegularFile(path)) {
+                        report.addFile(Files.size(path), references);
+                    } else {
+                        report.addMissingFile();
+                    }
+                } catch (IOException e) {
+                    report.addMissingFile();
+                }
+            });
+        }
+        report.setDeduplicatedUploads(deduplicatedUploads.get());
+        report.setUploadBytesSaved(uploadBytesSaved.get());
+        return report;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("uploads.deduplicated", deduplicatedUploads, AtomicLong::get)
+                .description("Uploads whose content was already stored")
+                .register(registry);
+        FunctionCounter.builder("uploads.deduplicated.bytes", uploadBytesSaved, AtomicLong::get)
+                .description("Bytes not written because the content was already stored")
+                .baseUnit("bytes")
+                .register(registry);
     }
 }
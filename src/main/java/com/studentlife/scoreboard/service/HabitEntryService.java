@@ -1,20 +1,32 @@
 package com.studentlife.scoreboard.service;
 
+import com.studentlife.scoreboard.dto.DashboardSnapshot;
+import com.studentlife.scoreboard.dto.HabitEntrySummary;
+import com.studentlife.scoreboard.dto.KeysetPage;
+import com.studentlife.scoreboard.dto.RangeStats;
+import com.studentlife.scoreboard.dto.StatsBucket;
 import com.studentlife.scoreboard.entity.HabitEntry;
 import com.studentlife.scoreboard.entity.Category;
 import com.studentlife.scoreboard.entity.User;
 import com.studentlife.scoreboard.repository.HabitEntryRepository;
-import com.studentlife.scoreboard.repository.CategoryRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 /**
  * Service layer for habit entry management.
@@ -22,13 +34,39 @@ import java.util.Optional;
  * All operations are filtered by user to ensure data isolation.
  */
 @Service
+@Timed(value = "app.service", description = "Service call time, by class and method", histogram = true)
 public class HabitEntryService {
     
     @Autowired
     private HabitEntryRepository habitEntryRepository;
     
     @Autowired
-    private CategoryRepository categoryRepository;
+    private DailyTotalsService dailyTotalsService;
+    
+    @Autowired
+    private StatsWindowCache statsWindowCache;
+    
+    @Autowired
+    private UserDataVersions userDataVersions;
+    
+    @Autowired
+    private FileStorageService fileStorageService;
+    
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    // Selected ids per statement and transaction for bulk actions
+    @Value("${app.entries.bulk-chunk-size:500}")
+    private int bulkChunkSize;
+    
+    // The trailing week covers today and the seven days before it
+    private static final int WEEK_DAYS = 8;
+    
+    // Upper bound on buckets per range query (a little over a year of days)
+    private static final int MAX_RANGE_BUCKETS = 400;
     
     // CRUD Operations - all filtered by user for data isolation
     
@@ -40,12 +78,136 @@ public class HabitEntryService {
         return habitEntryRepository.findById(id);
     }
     
+    /**
+     * Creates or updates an entry and keeps the daily rollup in step within the same transaction.
+     */
+    @Transactional
     public HabitEntry saveEntry(HabitEntry entry) {
-        return habitEntryRepository.save(entry);
+        Long userId = entry.getUser() != null ? entry.getUser().getId() : null;
+        if (entry.getId() != null && userId != null) {
+            // Take the previously stored values out of the rollup before they are overwritten
+            dailyTotalsService.subtractEntries(userId, List.of(entry.getId()));
+        }
+        
+        HabitEntry saved = habitEntryRepository.saveAndFlush(entry);
+        dailyTotalsService.addEntries(saved.getUser().getId(), List.of(saved.getId()));
+        statsWindowCache.invalidate(saved.getUser().getId());
+        userDataVersions.bump(saved.getUser().getId());
+        return saved;
+    }
+    
+    /**
+     * Applies the entry form's fields to one of the user's entries with a single conditional UPDATE.
+     * The image is only replaced when the changes carry a new one; the old file is released afterwards.
+     *
+     * @return the number of entries updated, 0 if the entry does not exist or belongs to someone else
+     */
+    @Transactional
+    public int updateEntry(Long userId, Long id, HabitEntry changes) {
+        String newImage = changes.getImageFilename();
+        String previousImage = newImage != null
+                ? habitEntryRepository.findImageFilenameByIdAndUserId(id, userId).orElse(null)
+                : null;
+        
+        // Scoped to the user as well, so an entry of someone else leaves the rollup untouched
+        dailyTotalsService.subtractEntries(userId, List.of(id));
+        int updated = habitEntryRepository.updateByIdAndUserId(id, userId, changes.getCategory(),
+                changes.getDescription(), changes.getDate(), changes.getDuration(), changes.getScore(),
+                changes.getNotes(), changes.getCustomLabel(), newImage);
+        if (updated == 0) {
+            return 0;
+        }
+        dailyTotalsService.addEntries(userId, List.of(id));
+        statsWindowCache.invalidate(userId);
+        userDataVersions.bump(userId);
+        
+        // A replaced image is deleted once no other entry shares it
+        if (previousImage != null && !previousImage.equals(newImage)) {
+            fileStorageService.release(previousImage);
+        }
+        return updated;
+    }
+    
+    /**
+     * Deletes one of the user's entries with a single conditional DELETE.
+     *
+     * @return the number of entries deleted, 0 if the entry does not exist or belongs to someone else
+     */
+    @Transactional
+    public int deleteEntry(Long userId, Long id) {
+        String image = habitEntryRepository.findImageFilenameByIdAndUserId(id, userId).orElse(null);
+        dailyTotalsService.subtractEntries(userId, List.of(id));
+        int deleted = habitEntryRepository.deleteByIdAndUserId(id, userId);
+        if (deleted == 0) {
+            return 0;
+        }
+        statsWindowCache.invalidate(userId);
+        userDataVersions.bump(userId);
+        // Uploads are shared between entries, so the file goes only if nothing else uses it
+        fileStorageService.release(image);
+        return deleted;
+    }
+    
+    // Bulk actions on a selection - owner-scoped, one set-based statement per chunk of ids
+    
+    /**
+     * Deletes the selected entries of the user. Their images are released in the background.
+     *
+     * @return the number of entries deleted; ids of other users' entries are ignored
+     */
+    public int deleteEntries(Long userId, Collection<Long> ids) {
+        return forEachChunk(userId, ids, chunk -> {
+            List<String> images = habitEntryRepository.findImageFilenamesByUserIdAndIdIn(userId, chunk);
+            dailyTotalsService.subtractEntries(userId, chunk);
+            int deleted = habitEntryRepository.deleteByUserIdAndIdIn(userId, chunk);
+            fileStorageService.releaseInBackground(images);
+            return deleted;
+        });
+    }
+    
+    /**
+     * Moves the selected entries of the user to another category.
+     *
+     * @return the number of entries updated
+     */
+    public int changeCategory(Long userId, Collection<Long> ids, Category category) {
+        return forEachChunk(userId, ids, chunk -> {
+            dailyTotalsService.subtractEntries(userId, chunk);
+            int updated = habitEntryRepository.updateCategoryByUserIdAndIdIn(userId, chunk, category);
+            dailyTotalsService.addEntries(userId, chunk);
+            return updated;
+        });
     }
     
-    public void deleteEntry(Long id) {
-        habitEntryRepository.deleteById(id);
+    /**
+     * Moves the selected entries of the user by a number of days, earlier for a negative count.
+     *
+     * @return the number of entries updated
+     */
+    public int shiftDates(Long userId, Collection<Long> ids, int days) {
+        return forEachChunk(userId, ids, chunk -> {
+            dailyTotalsService.subtractEntries(userId, chunk);
+            int updated = habitEntryRepository.shiftDateByUserIdAndIdIn(userId, chunk, days);
+            dailyTotalsService.addEntries(userId, chunk);
+            return updated;
+        });
+    }
+    
+    // Runs the action over the distinct ids in ascending chunks, each chunk in its own transaction
+    // together with its rollup update; ascending order keeps concurrent bulk actions from deadlocking
+    private int forEachChunk(Long userId, Collection<Long> ids, Function<List<Long>, Integer> action) {
+        List<Long> sorted = new ArrayList<>(new TreeSet<>(ids));
+        int affected = 0;
+        for (int from = 0; from < sorted.size(); from += bulkChunkSize) {
+            List<Long> chunk = sorted.subList(from, Math.min(from + bulkChunkSize, sorted.size()));
+            Integer rows = transactionTemplate.execute(status -> action.apply(chunk));
+            affected += rows != null ? rows : 0;
+        }
+        if (affected > 0) {
+            statsWindowCache.invalidate(userId);
+            userDataVersions.bump(userId);
+        }
+        return affected;
     }
     
     // Filtering Methods - all filtered by user
@@ -87,40 +249,59 @@ public class HabitEntryService {
     }
     
     public Integer getWeekTotalPoints(User user) {
-        LocalDate today = LocalDate.now();
-        LocalDate weekStart = today.minus(7, ChronoUnit.DAYS);
-        return getEntriesByDateRange(user, weekStart, today).stream()
-                .mapToInt(entry -> entry.getDuration() != null ? entry.getDuration() : 0)
-                .sum();
+        int total = 0;
+        for (int minutes : statsWindowCache.get(user).sumLastDays(WEEK_DAYS)) {
+            total += minutes;
+        }
+        return total;
     }
     
     public Map<String, Integer> getPointsByTypeForWeek(User user) {
+        StatsWindowCache.Window window = statsWindowCache.get(user);
+        return pointsByCategoryName(window, window.sumLastDays(WEEK_DAYS));
+    }
+    
+    public Integer calculateBalanceScore(User user) {
+        return calculateBalanceScore(getPointsByTypeForWeek(user));
+    }
+    
+    /**
+     * Builds everything the dashboard needs from today's entry summaries and the week's
+     * per-category totals (served from the window cache). All other figures are derived from those.
+     * Fully materialized, so the view renders without holding a connection. Not transactional,
+     * so a window loaded here runs in its own statement and can be cached.
+     */
+    public DashboardSnapshot getDashboardSnapshot(User user) {
         LocalDate today = LocalDate.now();
-        LocalDate weekStart = today.minus(7, ChronoUnit.DAYS);
-        List<HabitEntry> weekEntries = getEntriesByDateRange(user, weekStart, today);
         
-        Map<String, Integer> pointsByType = new HashMap<>();
-        for (Category category : categoryRepository.findAll()) {
-            pointsByType.put(category.getName(), 0);
-        }
+        List<HabitEntrySummary> todayEntries = habitEntryRepository.findSummariesByUserAndDate(user, today);
+        int todayTotalPoints = todayEntries.stream()
+                .mapToInt(entry -> entry.getDuration() != null ? entry.getDuration() : 0)
+                .sum();
         
-        for (HabitEntry entry : weekEntries) {
-            if (entry.getCategory() != null) {
-                String categoryName = entry.getCategory().getName();
-                pointsByType.put(categoryName, pointsByType.get(categoryName) + (entry.getDuration() != null ? entry.getDuration() : 0));
-            }
+        StatsWindowCache.Window window = statsWindowCache.get(user);
+        int[] weekTotals = window.sumLastDays(WEEK_DAYS);
+        int weekTotalPoints = 0;
+        for (int minutes : weekTotals) {
+            weekTotalPoints += minutes;
         }
+        Map<String, Integer> pointsByType = pointsByCategoryName(window, weekTotals);
         
-        return pointsByType;
+        return new DashboardSnapshot(today, todayEntries, todayTotalPoints, todayEntries.size(),
+                weekTotalPoints, pointsByType, calculateBalanceScore(pointsByType));
     }
     
-    public Integer calculateBalanceScore(User user) {
-        Map<String, Integer> pointsByType = getPointsByTypeForWeek(user);
-        int totalPoints = pointsByType.values().stream().mapToInt(Integer::intValue).sum();
-        
-        if (totalPoints == 0) return 0;
+    // Scores how evenly minutes are spread across the categories that have any activity
+    private static int calculateBalanceScore(Map<String, Integer> pointsByType) {
+        int totalPoints = 0;
+        int typeCount = 0;
+        for (Integer points : pointsByType.values()) {
+            if (points > 0) {
+                totalPoints += points;
+                typeCount++;
+            }
+        }
         
-        int typeCount = (int) pointsByType.values().stream().filter(p -> p > 0).count();
         if (typeCount == 0) return 0;
         
         double avgPoints = (double) totalPoints / typeCount;
@@ -136,36 +317,133 @@ public class HabitEntryService {
         return Math.min(100, balanceScore / typeCount);
     }
     
-    public List<HabitEntry> filterEntries(User user, Category category, LocalDate startDate, LocalDate endDate) {
+    /**
+     * Returns one page of the user's entries, newest first, continuing after the given cursor.
+     * Uses keyset conditions on (date, id) so deep pages cost the same as the first one.
+     * Rows are read-only summaries rather than managed entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<HabitEntrySummary> filterEntries(User user, Category category, LocalDate startDate, LocalDate endDate,
+                                                String cursor, int pageSize) {
+        Object[] after = KeysetPage.parseCursor(cursor);
+        LocalDate afterDate = (LocalDate) after[0];
+        Long afterId = (Long) after[1];
+        // Fetch one extra row to learn whether another page follows
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        
+        List<HabitEntrySummary> entries;
         if (category != null && startDate != null && endDate != null) {
-            return habitEntryRepository.findByUserAndCategoryAndDateRange(user, category, startDate, endDate);
+            entries = habitEntryRepository.findPageByUserAndCategoryAndDateRange(user, category, startDate, endDate, afterDate, afterId, limit);
         } else if (startDate != null && endDate != null) {
-            return getEntriesByDateRange(user, startDate, endDate);
+            entries = habitEntryRepository.findPageByUserAndDateRange(user, startDate, endDate, afterDate, afterId, limit);
         } else if (category != null) {
-            return getEntriesByCategory(user, category);
+            entries = habitEntryRepository.findPageByUserAndCategory(user, category, afterDate, afterId, limit);
         } else {
-            return getAllEntries(user);
+            entries = habitEntryRepository.findPageByUser(user, afterDate, afterId, limit);
+        }
+        
+        if (entries.size() <= pageSize) {
+            return new KeysetPage<>(entries, null);
         }
+        
+        List<HabitEntrySummary> page = entries.subList(0, pageSize);
+        HabitEntrySummary last = page.get(pageSize - 1);
+        return new KeysetPage<>(page, KeysetPage.cursorOf(last.getDate(), last.getId()));
     }
     
-    public Map<String, Integer> getWeeklyStats(User user) {
-        LocalDate today = LocalDate.now();
-        LocalDate weekStart = today.minus(7, ChronoUnit.DAYS);
-        List<HabitEntry> weekEntries = getEntriesByDateRange(user, weekStart, today);
+    /**
+     * Aggregates a user's entries over an arbitrary date range into day, week or month buckets.
+     * Sums and averages are computed by GROUP BY queries; only the grouped rows are read.
+     */
+    @Transactional(readOnly = true)
+    public RangeStats getRangeStats(User user, LocalDate startDate, LocalDate endDate, StatsBucket bucket) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        
+        // Lay out every bucket in the range so empty periods still show up
+        Map<LocalDate, Integer> bucketIndex = new LinkedHashMap<>();
+        for (LocalDate start = bucket.startOf(startDate); !start.isAfter(endDate); start = bucket.next(start)) {
+            bucketIndex.put(start, bucketIndex.size());
+            if (bucketIndex.size() > MAX_RANGE_BUCKETS) {
+                throw new IllegalArgumentException("Range is too long for " + bucket.name().toLowerCase() + " buckets");
+            }
+        }
         
-        Map<String, Integer> stats = new LinkedHashMap<>();
-        for (Category category : categoryRepository.findAll()) {
-            stats.put(category.getDisplayName() != null ? category.getDisplayName() : category.getName(), 0);
+        CategoryRegistry.Snapshot categories = categoryRegistry.snapshot();
+        
+        int[][] minutes = new int[bucketIndex.size()][categories.size()];
+        double[][] scoreSums = new double[bucketIndex.size()][categories.size()];
+        long[][] scoreCounts = new long[bucketIndex.size()][categories.size()];
+        
+        List<Object[]> rows;
+        switch (bucket) {
+            case WEEK:
+                rows = habitEntryRepository.aggregateByWeek(user, startDate, endDate);
+                break;
+            case MONTH:
+                rows = habitEntryRepository.aggregateByMonth(user, startDate, endDate);
+                break;
+            default:
+                rows = habitEntryRepository.aggregateByDay(user, startDate, endDate);
+                break;
         }
         
-        for (HabitEntry entry : weekEntries) {
-            Category category = entry.getCategory();
-            if (category != null) {
-                String categoryName = category.getDisplayName() != null ? category.getDisplayName() : category.getName();
-                stats.put(categoryName, stats.get(categoryName) + (entry.getDuration() != null ? entry.getDuration() : 0));
+        for (Object[] row : rows) {
+            // Month rows are keyed by [year, month]; day and week rows by a date
+            int offset = bucket == StatsBucket.MONTH ? 2 : 1;
+            LocalDate key = bucket == StatsBucket.MONTH
+                    ? LocalDate.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(), 1)
+                    : (LocalDate) row[0];
+            Integer b = bucketIndex.get(bucket.startOf(key));
+            int column = categories.ordinalOf((Long) row[offset]);
+            if (b == null || column < 0) {
+                continue;
+            }
+            
+            minutes[b][column] += ((Number) row[offset + 1]).intValue();
+            long scored = ((Number) row[offset + 3]).longValue();
+            if (scored > 0) {
+                scoreSums[b][column] += ((Number) row[offset + 2]).doubleValue() * scored;
+                scoreCounts[b][column] += scored;
             }
         }
         
-        return stats;
+        List<String> labels = new ArrayList<>();
+        for (int column = 0; column < categories.size(); column++) {
+            labels.add(categories.labelOf(column));
+        }
+        
+        List<RangeStats.Bucket> buckets = new ArrayList<>();
+        int[] totals = new int[categories.size()];
+        for (Map.Entry<LocalDate, Integer> entry : bucketIndex.entrySet()) {
+            int b = entry.getValue();
+            Map<String, Integer> bucketMinutes = new LinkedHashMap<>();
+            Map<String, Double> bucketScores = new LinkedHashMap<>();
+            for (int column = 0; column < labels.size(); column++) {
+                bucketMinutes.put(labels.get(column), minutes[b][column]);
+                bucketScores.put(labels.get(column),
+                        scoreCounts[b][column] > 0 ? scoreSums[b][column] / scoreCounts[b][column] : null);
+                totals[column] += minutes[b][column];
+            }
+            buckets.add(new RangeStats.Bucket(entry.getKey(), bucket.label(entry.getKey()), bucketMinutes, bucketScores));
+        }
+        
+        Map<String, Integer> totalsByCategory = new LinkedHashMap<>();
+        for (int column = 0; column < labels.size(); column++) {
+            totalsByCategory.put(labels.get(column), totals[column]);
+        }
+        
+        return new RangeStats(startDate, endDate, bucket, labels, buckets, totalsByCategory);
+    }
+    
+    // Maps per-category totals from a window onto category names
+    private static Map<String, Integer> pointsByCategoryName(StatsWindowCache.Window window, int[] totals) {
+        Map<String, Integer> pointsByType = new LinkedHashMap<>();
+        CategoryRegistry.Snapshot categories = window.getCategories();
+        for (int i = 0; i < categories.size(); i++) {
+            pointsByType.put(categories.get(i).getName(), totals[i]);
+        }
+        return pointsByType;
     }
 }
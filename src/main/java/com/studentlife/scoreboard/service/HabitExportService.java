@@ -0,0 +1,174 @@
+package com.studentlife.scoreboard.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studentlife.scoreboard.entity.Category;
+import com.studentlife.scoreboard.entity.HabitEntry;
+import com.studentlife.scoreboard.repository.HabitEntryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service for exporting a user's habit history as CSV or NDJSON.
+ * Entries are streamed from the database straight to the output, and the persistence
+ * context is cleared every few hundred rows, so memory stays flat regardless of history size.
+ */
+@Service
+public class HabitExportService {
+
+    // Column order shared by CSV export and import
+    public static final String[] CSV_COLUMNS = {
+            "date", "category", "description", "duration", "score", "notes", "label", "image"
+    };
+
+    // Rows written between persistence-context clears
+    private static final int CLEAR_INTERVAL = 500;
+
+    // Bounds used when a date filter is not applied
+    private static final LocalDate MIN_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Writes the user's entries to the output, newest first, applying the same filters as the entries list:
+     * the date range is only applied when both ends are given.
+     *
+     * @return the number of entries written
+     */
+    @Transactional(readOnly = true)
+    public long export(Long userId, Category category, LocalDate startDate, LocalDate endDate,
+                       Format format, OutputStream out) throws IOException {
+        boolean dateRange = startDate != null && endDate != null;
+        try (Stream<HabitEntry> entries = habitEntryRepository.streamForExport(
+                userId,
+                category != null ? category.getId() : null,
+                dateRange ? startDate : MIN_DATE,
+                dateRange ? endDate : MAX_DATE)) {
+            return format == Format.CSV ? writeCsv(entries.iterator(), out) : writeNdjson(entries.iterator(), out);
+        }
+    }
+
+    private long writeCsv(Iterator<HabitEntry> entries, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", CSV_COLUMNS));
+        writer.write("\r\n");
+
+        long count = 0;
+        while (entries.hasNext()) {
+            HabitEntry entry = entries.next();
+            writer.write(entry.getDate().toString());
+            writer.write(',');
+            writer.write(csv(entry.getCategoryName()));
+            writer.write(',');
+            writer.write(csv(entry.getDescription()));
+            writer.write(',');
+            writer.write(entry.getDuration() != null ? entry.getDuration().toString() : "");
+            writer.write(',');
+            writer.write(entry.getScore() != null ? entry.getScore().toString() : "");
+            writer.write(',');
+            writer.write(csv(entry.getNotes()));
+            writer.write(',');
+            writer.write(csv(entry.getCustomLabel()));
+            writer.write(',');
+            writer.write(csv(entry.getImageFilename()));
+            writer.write("\r\n");
+            afterRow(++count);
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeNdjson(Iterator<HabitEntry> entries, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are separated explicitly below, not by Jackson's default root separator
+        generator.setRootValueSeparator(null);
+
+        long count = 0;
+        while (entries.hasNext()) {
+            HabitEntry entry = entries.next();
+            generator.writeStartObject();
+            generator.writeStringField("date", entry.getDate().toString());
+            generator.writeStringField("category", entry.getCategoryName());
+            generator.writeStringField("description", entry.getDescription());
+            writeNumberField(generator, "duration", entry.getDuration());
+            writeNumberField(generator, "score", entry.getScore());
+            generator.writeStringField("notes", entry.getNotes());
+            generator.writeStringField("label", entry.getCustomLabel());
+            generator.writeStringField("image", entry.getImageFilename());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            afterRow(++count);
+        }
+        generator.flush();
+        return count;
+    }
+
+    // Drops exported entities from the persistence context so they can be collected
+    private void afterRow(long count) {
+        if (count % CLEAR_INTERVAL == 0) {
+            entityManager.clear();
+        }
+    }
+
+    private static void writeNumberField(JsonGenerator generator, String name, Integer value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(name, value);
+        } else {
+            generator.writeNullField(name);
+        }
+    }
+
+    // Quotes a CSV field when it contains a separator, quote or line break
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
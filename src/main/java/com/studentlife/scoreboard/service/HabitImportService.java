@@ -0,0 +1,511 @@
+package com.studentlife.scoreboard.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studentlife.scoreboard.dto.ImportResult;
+import com.studentlife.scoreboard.entity.Category;
+import com.studentlife.scoreboard.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Service for importing habit history from CSV, JSON array or NDJSON files.
+ * Rows are parsed and validated one at a time, then written with plain JDBC batch inserts
+ * (Hibernate cannot batch IDENTITY inserts) in chunks, each chunk in its own transaction
+ * together with its rollup update. Invalid rows are reported and skipped; the rest are imported.
+ */
+@Service
+public class HabitImportService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO habit_entries (user_id, category_id, description, date, duration, score, notes, custom_label) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Column limits of habit_entries
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_LABEL_LENGTH = 100;
+
+    // Rows written per JDBC batch and transaction
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DailyTotalsService dailyTotalsService;
+
+    @Autowired
+    private StatsWindowCache statsWindowCache;
+
+    @Autowired
+    private UserDataVersions userDataVersions;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    /**
+     * Imports entries for the user from the given stream, which may be gzip-compressed.
+     * When format is null it is detected from the first character of the content.
+     * If the stream cannot be read to the end, rows read before the failure are still imported
+     * and the failure is reported as the result's read error.
+     */
+    public ImportResult importEntries(User user, InputStream in, Format format) {
+        long startTime = System.currentTimeMillis();
+        ImportResult result = new ImportResult();
+
+        Batch batch = new Batch(user.getId(), categoriesByName(), result);
+        try {
+            InputStream content = decompressIfNeeded(in);
+            if (format == null) {
+                format = detectFormat(content);
+            }
+            if (format == Format.CSV) {
+                readCsv(new InputStreamReader(content, StandardCharsets.UTF_8), batch);
+            } else {
+                readJson(content, batch);
+            }
+        } catch (IOException e) {
+            result.setReadError("Could not read the file: " + e.getMessage());
+        }
+        batch.flush();
+
+        result.setElapsedMillis(System.currentTimeMillis() - startTime);
+        System.out.println("Imported " + result.getImported() + " of " + result.getRowsRead() +
+                " rows for user " + user.getId() + " in " + result.getElapsedMillis() + " ms");
+        return result;
+    }
+
+    private void readCsv(Reader reader, Batch batch) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(reader, 64 * 1024));
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return;
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            // Excel prepends a byte order mark to UTF-8 files
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columns.put(name, i);
+        }
+        for (String required : new String[]{"date", "category", "description", "duration"}) {
+            if (!columns.containsKey(required)) {
+                batch.result.reject(1, "Missing required column '" + required + "'");
+                return;
+            }
+        }
+
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            List<String> values = record;
+            batch.add(csv.getRecordLine(), column -> {
+                Integer index = columns.get(column);
+                return index != null && index < values.size() ? values.get(index) : null;
+            });
+        }
+    }
+
+    private void readJson(InputStream content, Batch batch) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(content)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+
+            // Either the elements of one array, or a sequence of objects (NDJSON)
+            while (token != null && token != JsonToken.END_ARRAY) {
+                long line = parser.currentLocation().getLineNr();
+                if (token != JsonToken.START_OBJECT) {
+                    batch.result.rowRead();
+                    batch.result.reject(line, "Expected a JSON object");
+                    parser.skipChildren();
+                } else {
+                    JsonNode node = objectMapper.readTree(parser);
+                    batch.add(line, field -> {
+                        JsonNode value = node.get(field);
+                        return value != null && !value.isNull() ? value.asText() : null;
+                    });
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            // The rest of the file cannot be read reliably; keep what was parsed so far
+            long line = e.getLocation() != null ? e.getLocation().getLineNr() : -1;
+            batch.result.reject(line, "Malformed JSON, import stopped here: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Validates a row, returning the entry to insert or recording why it was rejected.
+     */
+    private PendingEntry validate(long line, RowSource row, Map<String, Category> categories, ImportResult result) {
+        String dateValue = trimToNull(row.get("date"));
+        String categoryValue = trimToNull(row.get("category"));
+        String description = trimToNull(row.get("description"));
+        String notes = trimToNull(row.get("notes"));
+        String label = trimToNull(row.get("label"));
+
+        LocalDate date;
+        try {
+            date = dateValue != null ? LocalDate.parse(dateValue) : null;
+        } catch (DateTimeParseException e) {
+            result.reject(line, "Invalid date '" + dateValue + "', expected yyyy-MM-dd");
+            return null;
+        }
+        if (date == null) {
+            result.reject(line, "Date is required");
+            return null;
+        }
+
+        Category category = categoryValue != null ? categories.get(categoryValue.toUpperCase(Locale.ROOT)) : null;
+        if (category == null) {
+            result.reject(line, categoryValue == null ? "Category is required" : "Unknown category '" + categoryValue + "'");
+            return null;
+        }
+
+        if (description == null) {
+            result.reject(line, "Description is required");
+            return null;
+        }
+        if (description.length() > MAX_TEXT_LENGTH || (notes != null && notes.length() > MAX_TEXT_LENGTH)) {
+            result.reject(line, "Description and notes must be at most " + MAX_TEXT_LENGTH + " characters");
+            return null;
+        }
+        if (label != null && label.length() > MAX_LABEL_LENGTH) {
+            result.reject(line, "Label must be at most " + MAX_LABEL_LENGTH + " characters");
+            return null;
+        }
+
+        Integer duration = parseInteger(row.get("duration"));
+        if (duration == null || duration < 1) {
+            result.reject(line, "Duration must be a whole number of at least 1 minute");
+            return null;
+        }
+
+        String scoreValue = trimToNull(row.get("score"));
+        Integer score = parseInteger(scoreValue);
+        if (scoreValue != null && (score == null || score < 1 || score > 10)) {
+            result.reject(line, "Score must be a whole number from 1 to 10");
+            return null;
+        }
+
+        return new PendingEntry(line, category.getId(), description, date, duration, score, notes, label);
+    }
+
+    /**
+     * Inserts one chunk and adds it to the rollup in a single transaction.
+     * If the chunk fails, all of its rows are reported and the import moves on to the next chunk.
+     */
+    private int writeChunk(Long userId, List<PendingEntry> chunk, ImportResult result) {
+        try {
+            return transactionTemplate.execute(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(), (ps, entry) -> {
+                    ps.setLong(1, userId);
+                    ps.setLong(2, entry.categoryId);
+                    ps.setString(3, entry.description);
+                    ps.setDate(4, Date.valueOf(entry.date));
+                    ps.setInt(5, entry.duration);
+                    if (entry.score != null) {
+                        ps.setInt(6, entry.score);
+                    } else {
+                        ps.setNull(6, Types.INTEGER);
+                    }
+                    ps.setString(7, entry.notes);
+                    ps.setString(8, entry.label);
+                });
+
+                Map<String, DailyTotalsService.Delta> deltas = new LinkedHashMap<>();
+                for (PendingEntry entry : chunk) {
+                    deltas.computeIfAbsent(entry.date + ":" + entry.categoryId,
+                                    key -> new DailyTotalsService.Delta(entry.date, entry.categoryId))
+                            .add(entry.duration, entry.score);
+                }
+                dailyTotalsService.applyDeltas(userId, deltas.values());
+                statsWindowCache.invalidate(userId);
+                userDataVersions.bump(userId);
+                return chunk.size();
+            });
+        } catch (DataAccessException e) {
+            System.err.println("Import chunk failed for user " + userId + ": " + e.getMostSpecificCause().getMessage());
+            for (PendingEntry entry : chunk) {
+                result.reject(entry.line, "Not saved: " + e.getMostSpecificCause().getMessage());
+            }
+            return 0;
+        }
+    }
+
+    // Category lookup by name or display name, case-insensitive
+    private Map<String, Category> categoriesByName() {
+        Map<String, Category> byName = new HashMap<>();
+        for (Category category : categoryRegistry.getAll()) {
+            if (category.getDisplayName() != null) {
+                byName.put(category.getDisplayName().toUpperCase(Locale.ROOT), category);
+            }
+        }
+        // Internal names win over display names when both match
+        for (Category category : categoryRegistry.getAll()) {
+            byName.put(category.getName().toUpperCase(Locale.ROOT), category);
+        }
+        return byName;
+    }
+
+    private static InputStream decompressIfNeeded(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, 64 * 1024);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        // gzip magic number
+        if (first == 0x1f && second == 0x8b) {
+            return new BufferedInputStream(new GZIPInputStream(buffered, 64 * 1024), 64 * 1024);
+        }
+        return buffered;
+    }
+
+    // JSON when the content starts with an object or array, CSV otherwise
+    private static Format detectFormat(InputStream content) throws IOException {
+        content.mark(1024);
+        try {
+            int c;
+            int read = 0;
+            while ((c = content.read()) != -1 && read++ < 1024) {
+                if (c == '{' || c == '[') {
+                    return Format.JSON;
+                }
+                if (!Character.isWhitespace(c) && c != 0xEF && c != 0xBB && c != 0xBF) {
+                    return Format.CSV;
+                }
+            }
+            return Format.CSV;
+        } finally {
+            content.reset();
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // Named field access over a CSV record or a JSON object
+    private interface RowSource {
+        String get(String field);
+    }
+
+    /**
+     * Collects validated rows of one import and writes them out a chunk at a time.
+     */
+    private class Batch {
+
+        private final Long userId;
+        private final Map<String, Category> categories;
+        private final ImportResult result;
+        private final List<PendingEntry> pending = new ArrayList<>();
+
+        Batch(Long userId, Map<String, Category> categories, ImportResult result) {
+            this.userId = userId;
+            this.categories = categories;
+            this.result = result;
+        }
+
+        void add(long line, RowSource row) {
+            result.rowRead();
+            PendingEntry entry = validate(line, row, categories, result);
+            if (entry == null) {
+                return;
+            }
+            pending.add(entry);
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            result.imported(writeChunk(userId, pending, result));
+            pending.clear();
+        }
+    }
+
+    // A validated row waiting to be inserted
+    private static class PendingEntry {
+
+        private final long line;
+        private final Long categoryId;
+        private final String description;
+        private final LocalDate date;
+        private final int duration;
+        private final Integer score;
+        private final String notes;
+        private final String label;
+
+        PendingEntry(long line, Long categoryId, String description, LocalDate date,
+                     int duration, Integer score, String notes, String label) {
+            this.line = line;
+            this.categoryId = categoryId;
+            this.description = description;
+            this.date = date;
+            this.duration = duration;
+            this.score = score;
+            this.notes = notes;
+            this.label = label;
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma separated, double-quoted fields may contain
+     * commas, escaped quotes and line breaks. Tracks the line each record starts on.
+     */
+    private static class CsvReader {
+
+        private final Reader reader;
+        private int line = 1;
+        private long recordLine;
+        private int peeked = -2;
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        long getRecordLine() {
+            return recordLine;
+        }
+
+        // Next record, skipping blank lines, or null at end of input
+        List<String> readRecord() throws IOException {
+            while (true) {
+                int c = read();
+                if (c == -1) {
+                    return null;
+                }
+                if (c == '\r' || c == '\n') {
+                    endOfLine(c);
+                    continue;
+                }
+                unread(c);
+                break;
+            }
+
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                int c = read();
+                if (quoted) {
+                    if (c == -1) {
+                        break;
+                    } else if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            unread(next);
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c != -1) {
+                        endOfLine(c);
+                    }
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        // Consumes the \n of a \r\n pair and counts the line
+        private void endOfLine(int c) throws IOException {
+            if (c == '\r') {
+                int next = read();
+                if (next != '\n') {
+                    unread(next);
+                }
+            }
+            line++;
+        }
+
+        private int read() throws IOException {
+            if (peeked != -2) {
+                int c = peeked;
+                peeked = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private void unread(int c) {
+            peeked = c;
+        }
+    }
+}
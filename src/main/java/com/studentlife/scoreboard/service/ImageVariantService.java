@@ -0,0 +1,288 @@
+package com.studentlife.scoreboard.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates resized JPEG variants of uploaded images on a bounded background executor.
+ * A variant is stored next to its original as {@code <original>.<variant>.jpg}, so the original
+ * can always be derived from a variant name. Pages reference the variant and fall back to the
+ * original until it exists; a request for a missing variant queues it again.
+ */
+@Service
+public class ImageVariantService {
+
+    public enum Variant {
+        // Entry card thumbnail
+        THUMB("thumb", 640),
+        // Single entry view
+        DETAIL("detail", 1600);
+
+        private final String suffix;
+        private final int maxSize;
+
+        Variant(String suffix, int maxSize) {
+            this.suffix = suffix;
+            this.maxSize = maxSize;
+        }
+
+        public String getSuffix() {
+            return suffix;
+        }
+
+        // Longest edge in pixels; smaller images are not enlarged
+        public int getMaxSize() {
+            return maxSize;
+        }
+    }
+
+    private static final String VARIANT_EXTENSION = ".jpg";
+    private static final float JPEG_QUALITY = 0.8f;
+
+    // Failed originals remembered so a broken file is not decoded on every page view
+    private static final int MAX_REMEMBERED_FAILURES = 10000;
+
+    @Value("${app.upload.variants.threads:2}")
+    private int threads;
+
+    // Pending jobs beyond this are dropped; the variant is requested again on next view
+    @Value("${app.upload.variants.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Autowired
+    private UploadDirectory uploadDirectory;
+
+    private ThreadPoolExecutor executor;
+
+    // Originals queued or being processed, so repeated requests do not queue duplicates
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    // Keep resizing from competing with request threads
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Name of the given variant of a stored original.
+     */
+    public static String variantFilename(String filename, Variant variant) {
+        return filename + "." + variant.getSuffix() + VARIANT_EXTENSION;
+    }
+
+    /**
+     * Name of the original a variant was generated from, or null if the name is not a variant.
+     */
+    public static String originalOf(String filename) {
+        for (Variant variant : Variant.values()) {
+            String suffix = "." + variant.getSuffix() + VARIANT_EXTENSION;
+            if (filename.endsWith(suffix) && filename.length() > suffix.length()) {
+                return filename.substring(0, filename.length() - suffix.length());
+            }
+        }
+        return null;
+    }
+
+    // Used by templates
+    public String thumbnailOf(String filename) {
+        return variantFilename(filename, Variant.THUMB);
+    }
+
+    public String detailOf(String filename) {
+        return variantFilename(filename, Variant.DETAIL);
+    }
+
+    /**
+     * Queues generation of any missing variants of a stored original.
+     * Returns without waiting; the job is dropped if the queue is full.
+     */
+    public void enqueue(String filename) {
+        if (!UploadDirectory.isSafeFilename(filename) || originalOf(filename) != null || failed.contains(filename)) {
+            return;
+        }
+        if (!pending.add(filename)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(filename);
+                } finally {
+                    pending.remove(filename);
+                }
+            });
+        } catch (RuntimeException e) {
+            pending.remove(filename);
+            System.err.println("Image variant queue full, skipping " + filename);
+        }
+    }
+
+    private void generate(String filename) {
+        Path original = uploadDirectory.resolve(filename);
+        try {
+            if (!Files.isRegularFile(original) || allVariantsExist(filename)) {
+                return;
+            }
+
+            // Decode once, at just the resolution the largest variant needs
+            BufferedImage image = decode(original, Variant.DETAIL.getMaxSize());
+            if (image == null) {
+                rememberFailure(filename);
+                System.err.println("No image reader for " + filename + ", variants not generated");
+                return;
+            }
+
+            // Largest first, so each smaller variant is scaled from the previous one
+            for (int i = Variant.values().length - 1; i >= 0; i--) {
+                Variant variant = Variant.values()[i];
+                image = scaleToFit(image, variant.getMaxSize());
+                Path target = uploadDirectory.resolve(variantFilename(filename, variant));
+                if (!Files.exists(target)) {
+                    // An original from the flat layout has no shard directory yet
+                    uploadDirectory.createParentDirectories(target);
+                    writeJpeg(image, target);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            rememberFailure(filename);
+            System.err.println("Failed to generate image variants for " + filename + ": " + e.getMessage());
+        }
+    }
+
+    private boolean allVariantsExist(String filename) {
+        for (Variant variant : Variant.values()) {
+            if (!Files.exists(uploadDirectory.resolve(variantFilename(filename, variant)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rememberFailure(String filename) {
+        if (failed.size() >= MAX_REMEMBERED_FAILURES) {
+            failed.clear();
+        }
+        failed.add(filename);
+    }
+
+    /**
+     * Decodes an image, skipping source pixels (subsampling) when it is much larger than needed,
+     * which keeps memory and decode time proportional to the output size.
+     */
+    private static BufferedImage decode(Path path, int maxSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Keep at least twice the target resolution for a clean downscale
+                int step = Math.max(1, longest / (maxSize * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales an image so its longest edge is at most maxSize, halving repeatedly for quality.
+     * The result is always opaque RGB, with transparency flattened onto white.
+     */
+    private static BufferedImage scaleToFit(BufferedImage image, int maxSize) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            if (current.getType() == BufferedImage.TYPE_INT_RGB
+                    && current.getWidth() == width && current.getHeight() == height) {
+                break;
+            }
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Writes to a temporary file first so a half-written variant is never served
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,209 @@
+package com.studentlife.scoreboard.service;
+
+import com.studentlife.scoreboard.entity.User;
+import com.studentlife.scoreboard.repository.DailyCategoryTotalRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of each user's trailing window of per-category minutes.
+ * A window is an int[days][categories] matrix read from the daily rollup, valid only
+ * for the day it was built and dropped whenever one of the user's entries is written.
+ */
+@Component
+public class StatsWindowCache implements MeterBinder {
+
+    // Number of days held per user, ending today
+    @Value("${app.stats.cache.days:8}")
+    private int days;
+
+    // Maximum number of users held before the least recently used is evicted
+    @Value("${app.stats.cache.max-users:10000}")
+    private int maxUsers;
+
+    @Autowired
+    private DailyCategoryTotalRepository dailyCategoryTotalRepository;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    private Map<Long, Window> windows;
+
+    // Bumped on every invalidation so a load that raced with a write is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (days < 8) {
+            throw new IllegalStateException("app.stats.cache.days must be at least 8 to cover the trailing week");
+        }
+        windows = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Window> eldest) {
+                if (size() > maxUsers) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the user's window ending today, loading it from the rollup on a miss
+     * or when the cached window was built on an earlier day.
+     * A window loaded inside the caller's transaction is returned but not cached: the transaction
+     * may read a snapshot from before a write whose invalidation has already run.
+     */
+    public Window get(User user) {
+        LocalDate today = LocalDate.now();
+        Long userId = user.getId();
+
+        synchronized (windows) {
+            Window window = windows.get(userId);
+            if (window != null && window.endDate.equals(today)) {
+                hits.incrementAndGet();
+                return window;
+            }
+        }
+
+        misses.incrementAndGet();
+        long generation = invalidations.get();
+        Window loaded = load(user, today);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loaded;
+        }
+        synchronized (windows) {
+            if (invalidations.get() == generation) {
+                windows.put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the user's window once the current transaction commits,
+     * or immediately when there is no transaction.
+     */
+    public void invalidate(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        synchronized (windows) {
+            windows.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (windows) {
+            return windows.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("stats.window.cache.hits", this, StatsWindowCache::getHits).register(registry);
+        FunctionCounter.builder("stats.window.cache.misses", this, StatsWindowCache::getMisses).register(registry);
+        FunctionCounter.builder("stats.window.cache.evictions", this, StatsWindowCache::getEvictions).register(registry);
+        Gauge.builder("stats.window.cache.size", this, StatsWindowCache::size).register(registry);
+    }
+
+    private void evict(Long userId) {
+        invalidations.incrementAndGet();
+        synchronized (windows) {
+            windows.remove(userId);
+        }
+    }
+
+    private Window load(User user, LocalDate endDate) {
+        LocalDate startDate = endDate.minus(days - 1, ChronoUnit.DAYS);
+        CategoryRegistry.Snapshot categories = categoryRegistry.snapshot();
+
+        int[][] minutes = new int[days][categories.size()];
+        for (Object[] row : dailyCategoryTotalRepository.findMinutesByUserAndDateRange(user, startDate, endDate)) {
+            int column = categories.ordinalOf((Long) row[1]);
+            if (column >= 0) {
+                int day = (int) ChronoUnit.DAYS.between(startDate, (LocalDate) row[0]);
+                minutes[day][column] += ((Number) row[2]).intValue();
+            }
+        }
+
+        return new Window(endDate, categories, minutes);
+    }
+
+    /**
+     * A user's per-day, per-category minutes for the days ending at endDate.
+     * Row 0 is the oldest day; columns are category ordinals of the snapshot it was built with.
+     */
+    public static final class Window {
+
+        private final LocalDate endDate;
+        private final CategoryRegistry.Snapshot categories;
+        private final int[][] minutes;
+
+        Window(LocalDate endDate, CategoryRegistry.Snapshot categories, int[][] minutes) {
+            this.endDate = endDate;
+            this.categories = categories;
+            this.minutes = minutes;
+        }
+
+        public CategoryRegistry.Snapshot getCategories() {
+            return categories;
+        }
+
+        /**
+         * Sums each category's minutes over the last {@code dayCount} days, including today.
+         */
+        public int[] sumLastDays(int dayCount) {
+            int[] totals = new int[categories.size()];
+            for (int day = Math.max(0, minutes.length - dayCount); day < minutes.length; day++) {
+                int[] row = minutes[day];
+                for (int column = 0; column < row.length; column++) {
+                    totals[column] += row[column];
+                }
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.studentlife.scoreboard.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Location of uploaded files on disk.
+ * Maps stored filenames to paths under the configured upload directory and rejects
+ * names that could escape it. Files are spread over two levels of shard directories named
+ * after a hash prefix ({@code ab/cd/<name>}), so no single directory grows without bound.
+ * Files from before sharding stay readable at the top level until they are relocated.
+ */
+@Component
+public class UploadDirectory {
+
+    // Subdirectory where uploads are written before they get their final name
+    private static final String INCOMING_DIR = ".incoming";
+
+    // Stored names are generated, so anything else is rejected
+    private static final Pattern SAFE_FILENAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,254}");
+
+    // Names that already start with a hash (content hashes, UUIDs) are sharded by that prefix
+    private static final Pattern HEX_PREFIX = Pattern.compile("[0-9a-f]{4}.*");
+
+    // Directory path for storing uploaded files
+    @Value("${app.upload.dir}")
+    private String uploadDir;
+
+    private Path root;
+
+    private Path incoming;
+
+    // Whether files from the flat layout may still sit at the top level
+    private volatile boolean legacyFilesRemain;
+
+    // Initialize upload directory on application startup
+    @PostConstruct
+    public void init() {
+        try {
+            root = Paths.get(uploadDir).toAbsolutePath().normalize();
+            incoming = root.resolve(INCOMING_DIR);
+            Files.createDirectories(incoming);
+            legacyFilesRemain = hasTopLevelFiles();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create upload directory", e);
+        }
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Staging directory for partial uploads, on the same filesystem as the stored files
+     * so a finished upload can be renamed into place. Never served.
+     */
+    public Path getIncoming() {
+        return incoming;
+    }
+
+    /**
+     * Returns the path a stored file lives at: its shard directory, or the top level
+     * for a file from the flat layout that has not been relocated yet.
+     * Parent directories of a new file may not exist; see {@link #createParentDirectories}.
+     *
+     * @throws IllegalArgumentException if the name is not a valid stored filename
+     */
+    public Path resolve(String filename) {
+        if (!isSafeFilename(filename)) {
+            throw new IllegalArgumentException("Invalid upload filename: " + filename);
+        }
+        Path sharded = root.resolve(shardOf(filename)).resolve(filename);
+        if (legacyFilesRemain) {
+            Path legacy = root.resolve(filename);
+            if (!Files.exists(sharded) && Files.exists(legacy)) {
+                return legacy;
+            }
+        }
+        return sharded;
+    }
+
+    /**
+     * Path of a stored file relative to the upload directory, with '/' separators.
+     */
+    public String relativePath(String filename) {
+        return root.relativize(resolve(filename)).toString().replace('\\', '/');
+    }
+
+    public void createParentDirectories(Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+    }
+
+    /**
+     * Two-level shard directory for a stored name, e.g. {@code 3f/a9}.
+     * Variants share their original's stem, so they land in the same directory.
+     */
+    static String shardOf(String filename) {
+        int dot = filename.indexOf('.');
+        String stem = dot > 0 ? filename.substring(0, dot) : filename;
+        String prefix = HEX_PREFIX.matcher(stem).matches() ? stem : sha256Hex(stem);
+        return prefix.substring(0, 2) + "/" + prefix.substring(2, 4);
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public boolean hasLegacyFiles() {
+        return legacyFilesRemain;
+    }
+
+    /**
+     * Moves files left at the top level by the flat layout into their shard directories.
+     * Safe to run while uploads are served: a file is found at either location during the move.
+     * A run that stops part way leaves the remaining files where they are, so it can simply run again.
+     *
+     * @return the number of files moved
+     */
+    public long relocateLegacyFiles() throws IOException {
+        long moved = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, Files::isRegularFile)) {
+            for (Path file : files) {
+                String filename = file.getFileName().toString();
+                if (!isSafeFilename(filename)) {
+                    continue;
+                }
+                Path target = root.resolve(shardOf(filename)).resolve(filename);
+                if (Files.exists(target)) {
+                    System.err.println("Upload " + filename + " exists in both layouts, keeping the sharded copy");
+                    continue;
+                }
+                createParentDirectories(target);
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+                moved++;
+            }
+        }
+        legacyFilesRemain = hasTopLevelFiles();
+        return moved;
+    }
+
+    private boolean hasTopLevelFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, Files::isRegularFile)) {
+            return files.iterator().hasNext();
+        }
+    }
+
+    public static boolean isSafeFilename(String filename) {
+        return filename != null && SAFE_FILENAME.matcher(filename).matches() && !filename.contains("..");
+    }
+}
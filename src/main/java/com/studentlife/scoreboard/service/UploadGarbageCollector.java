@@ -0,0 +1,186 @@
+package com.studentlife.scoreboard.service;
+
+import com.studentlife.scoreboard.dto.OrphanSweepReport;
+import com.studentlife.scoreboard.repository.HabitEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Mark-and-sweep collector for uploaded files that no entry references, such as images
+ * replaced or deleted before files were released, or uploads whose entry was never saved.
+ * Walks the upload directory lazily and checks the stored names against habit_entries one
+ * chunk at a time; a variant lives or dies with its original. Files touched within the grace
+ * period are left alone, since an upload may be stored before its entry is committed.
+ * Created eagerly so the schedule also runs with lazy initialization.
+ */
+@Service
+@Lazy(false)
+public class UploadGarbageCollector {
+
+    // Top-level files from the flat layout plus the two shard levels
+    private static final int MAX_DEPTH = 3;
+
+    @Autowired
+    private UploadDirectory uploadDirectory;
+
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+
+    // Unreferenced files younger than this are assumed to belong to an upload in progress
+    @Value("${app.upload.gc.grace:PT1H}")
+    private Duration grace;
+
+    // Stored names checked against the database per query
+    @Value("${app.upload.gc.chunk-size:500}")
+    private int chunkSize;
+
+    // Scheduled runs only report what they would delete
+    @Value("${app.upload.gc.dry-run:false}")
+    private boolean scheduledDryRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${app.upload.gc.cron:0 30 3 * * *}")
+    public void scheduledSweep() {
+        OrphanSweepReport report = sweep(scheduledDryRun);
+        if (report != null) {
+            System.out.println("Upload sweep" + (report.isDryRun() ? " (dry run)" : "") + ": " +
+                    report.getOrphanedFiles() + " orphaned files (" + report.getOrphanedBytes() + " bytes) of " +
+                    report.getFilesScanned() + " scanned in " + report.getElapsedMillis() + " ms");
+        }
+    }
+
+    /**
+     * Deletes, or in a dry run only reports, uploaded files that no entry references
+     * and that are older than the grace period.
+     *
+     * @return the sweep report, or null if a sweep is already running
+     */
+    public OrphanSweepReport sweep(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            OrphanSweepReport report = new OrphanSweepReport(dryRun);
+            Instant cutoff = Instant.now().minus(grace);
+            Path incoming = uploadDirectory.getIncoming();
+
+            // Files grouped by the stored name that keeps them alive: a variant's original, or the file itself
+            Map<String, List<Path>> chunk = new LinkedHashMap<>();
+            try (Stream<Path> files = Files.walk(uploadDirectory.getRoot(), MAX_DEPTH)) {
+                Iterator<Path> iterator = files
+                        .filter(path -> !path.startsWith(incoming) && Files.isRegularFile(path))
+                        .iterator();
+                while (iterator.hasNext()) {
+                    Path path = iterator.next();
+                    String filename = path.getFileName().toString();
+                    if (!UploadDirectory.isSafeFilename(filename)) {
+                        continue;
+                    }
+                    report.fileScanned();
+                    String original = ImageVariantService.originalOf(filename);
+                    chunk.computeIfAbsent(original != null ? original : filename, key -> new ArrayList<>()).add(path);
+                    if (chunk.size() >= chunkSize) {
+                        sweepChunk(chunk, cutoff, report);
+                        chunk.clear();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                report.failure();
+                System.err.println("Upload sweep stopped early: " + e.getMessage());
+            }
+            if (!chunk.isEmpty()) {
+                sweepChunk(chunk, cutoff, report);
+            }
+
+            sweepIncoming(incoming, cutoff, report);
+            report.setElapsedMillis(System.currentTimeMillis() - start);
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void sweepChunk(Map<String, List<Path>> chunk, Instant cutoff, OrphanSweepReport report) {
+        Set<String> referenced = new HashSet<>(habitEntryRepository.findReferencedImageFilenames(chunk.keySet()));
+        for (Map.Entry<String, List<Path>> group : chunk.entrySet()) {
+            if (referenced.contains(group.getKey())) {
+                continue;
+            }
+            try {
+                // A recently stored or reused original keeps its variants too
+                if (anyModifiedAfter(group.getValue(), cutoff)) {
+                    report.recentFileSkipped();
+                    continue;
+                }
+                for (Path path : group.getValue()) {
+                    collect(path, report);
+                }
+            } catch (IOException e) {
+                report.failure();
+                System.err.println("Failed to sweep upload " + group.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Removes staged uploads and multipart temp files left behind by requests that never finished.
+     */
+    private void sweepIncoming(Path incoming, Instant cutoff, OrphanSweepReport report) {
+        try (Stream<Path> files = Files.list(incoming)) {
+            Iterator<Path> iterator = files.filter(Files::isRegularFile).iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                report.fileScanned();
+                try {
+                    if (Files.getLastModifiedTime(path).toInstant().isAfter(cutoff)) {
+                        report.recentFileSkipped();
+                    } else {
+                        collect(path, report);
+                    }
+                } catch (IOException e) {
+                    report.failure();
+                }
+            }
+        } catch (IOException e) {
+            report.failure();
+            System.err.println("Failed to sweep staged uploads: " + e.getMessage());
+        }
+    }
+
+    private void collect(Path path, OrphanSweepReport report) throws IOException {
+        long size = Files.size(path);
+        if (!report.isDryRun() && !Files.deleteIfExists(path)) {
+            return;
+        }
+        report.orphan(uploadDirectory.getRoot().relativize(path).toString().replace('\\', '/'), size);
+    }
+
+    private static boolean anyModifiedAfter(List<Path> paths, Instant cutoff) throws IOException {
+        for (Path path : paths) {
+            if (Files.getLastModifiedTime(path).toInstant().isAfter(cutoff)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
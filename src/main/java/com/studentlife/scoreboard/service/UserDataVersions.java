@@ -0,0 +1,68 @@
+package com.studentlife.scoreboard.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user data versions for conditional GETs.
+ * A user's version goes up after every committed write to their entries, and pages built from
+ * those entries derive their ETag from it, so an unchanged page is answered with 304 before any
+ * query runs. Versions are held in memory like the stats window cache; the ETag carries this
+ * instance's start time so a version counted before a restart is never matched.
+ */
+@Component
+public class UserDataVersions {
+
+    // Distinguishes ETags issued by this run of the application
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    // Bumped when any user's data may have changed, e.g. when the rollup is rebuilt
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Moves the user's version on once the current transaction commits, or immediately
+     * when there is no transaction. Bumping only after commit means a version is never
+     * paired with data from before the write.
+     */
+    public void bump(Long userId) {
+        afterCommit(() -> versions.merge(userId, 1L, Long::sum));
+    }
+
+    public void bumpAll() {
+        afterCommit(generation::incrementAndGet);
+    }
+
+    public long current(Long userId) {
+        return versions.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Weak ETag for a page of the user's data. Pages that depend on today's date pass it as day,
+     * so they are recomputed after midnight; others pass null.
+     */
+    public String etag(Long userId, LocalDate day) {
+        return "W/\"" + userId + "-" + epoch + "-" + generation.get() + "-" + current(userId) +
+                (day != null ? "-" + day : "") + "\"";
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
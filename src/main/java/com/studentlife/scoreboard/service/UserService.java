@@ -2,6 +2,7 @@ package com.studentlife.scoreboard.service;
 
 import com.studentlife.scoreboard.entity.User;
 import com.studentlife.scoreboard.repository.UserRepository;
+import com.studentlife.scoreboard.security.AppUserDetails;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -35,7 +36,8 @@ public class UserService implements UserDetailsService {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority("ROLE_" + foundUser.getRole()));
         
-        return new org.springframework.security.core.userdetails.User(
+        return new AppUserDetails(
+            foundUser.getId(),
             foundUser.getUsername(),
             foundUser.getPassword(),
             authorities
@@ -0,0 +1,63 @@
+package com.studentlife.scoreboard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Actuator endpoints other than health are for admins only; registered users get 403.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void healthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void usersCannotReadOrTriggerEndpoints() throws Exception {
+        MockHttpSession user = sessionWithRole("ROLE_USER");
+        for (String endpoint : List.of("/actuator/metrics", "/actuator/slowqueries", "/actuator/uploads")) {
+            mockMvc.perform(get(endpoint).session(user)).andExpect(status().isForbidden());
+        }
+        mockMvc.perform(post("/actuator/uploads").session(user)).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adminsCanReadEndpoints() throws Exception {
+        MockHttpSession admin = sessionWithRole("ROLE_ADMIN");
+        for (String endpoint : List.of("/actuator/metrics", "/actuator/slowqueries", "/actuator/uploads")) {
+            mockMvc.perform(get(endpoint).session(admin)).andExpect(status().isOk());
+        }
+    }
+
+    private static MockHttpSession sessionWithRole(String role) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken("someone", null,
+                List.of(new SimpleGrantedAuthority(role))));
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+        return session;
+    }
+}
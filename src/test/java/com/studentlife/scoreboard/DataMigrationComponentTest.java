@@ -0,0 +1,99 @@
+package com.studentlife.scoreboard;
+
+import com.studentlife.scoreboard.component.DataMigrationComponent;
+import com.studentlife.scoreboard.entity.DataMigrationRecord;
+import com.studentlife.scoreboard.migration.ChunkedMigration;
+import com.studentlife.scoreboard.migration.DataMigration;
+import com.studentlife.scoreboard.repository.DataMigrationRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs a chunked migration that crashes part way, then runs the migrations again and checks
+ * that it resumes after the last checkpointed chunk without redoing or losing rows.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DataMigrationComponentTest {
+
+    @Autowired
+    private DataMigrationComponent dataMigrationComponent;
+
+    @Autowired
+    private DataMigrationRecordRepository dataMigrationRecordRepository;
+
+    @Test
+    void chunkedMigrationResumesFromCheckpoint() throws Exception {
+        StubMigration migration = new StubMigration();
+        Object registered = ReflectionTestUtils.getField(dataMigrationComponent, "migrations");
+        ReflectionTestUtils.setField(dataMigrationComponent, "migrations", List.<DataMigration>of(migration));
+        try {
+            dataMigrationComponent.run();
+
+            DataMigrationRecord record = dataMigrationRecordRepository.findById(StubMigration.VERSION).orElseThrow();
+            assertEquals(DataMigrationRecord.Status.RUNNING, record.getStatus());
+            assertEquals(6L, record.getCheckpoint());
+            assertEquals(6L, record.getRowsProcessed());
+
+            migration.crashAfterId = -1;
+            migration.calls.clear();
+            dataMigrationComponent.run();
+
+            record = dataMigrationRecordRepository.findById(StubMigration.VERSION).orElseThrow();
+            assertEquals(DataMigrationRecord.Status.COMPLETED, record.getStatus());
+            assertEquals(StubMigration.ROWS, record.getRowsProcessed());
+            assertEquals(6L, migration.calls.get(0));
+            // Each row was processed exactly once across both runs
+            assertEquals(LongStream.rangeClosed(1, StubMigration.ROWS).boxed().toList(), migration.processed);
+        } finally {
+            ReflectionTestUtils.setField(dataMigrationComponent, "migrations", registered);
+            dataMigrationRecordRepository.deleteById(StubMigration.VERSION);
+        }
+    }
+
+    // Walks ids 1..ROWS three at a time, throwing when asked for the chunk after crashAfterId
+    private static class StubMigration implements ChunkedMigration {
+
+        static final int VERSION = 900;
+        static final long ROWS = 10;
+
+        long crashAfterId = 6;
+        final List<Long> calls = new ArrayList<>();
+        final List<Long> processed = new ArrayList<>();
+
+        @Override
+        public int getVersion() {
+            return VERSION;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Stub chunked migration";
+        }
+
+        @Override
+        public Chunk migrateChunk(long afterId, int chunkSize) {
+            calls.add(afterId);
+            if (afterId == crashAfterId) {
+                throw new IllegalStateException("Simulated crash");
+            }
+            long lastId = Math.min(ROWS, afterId + Math.min(chunkSize, 3));
+            if (lastId <= afterId) {
+                return Chunk.DONE;
+            }
+            for (long id = afterId + 1; id <= lastId; id++) {
+                processed.add(id);
+            }
+            return new Chunk(lastId, (int) (lastId - afterId));
+        }
+    }
+}
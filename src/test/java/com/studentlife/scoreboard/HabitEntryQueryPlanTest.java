@@ -0,0 +1,79 @@
+package com.studentlife.scoreboard;
+
+import com.studentlife.scoreboard.entity.Category;
+import com.studentlife.scoreboard.entity.User;
+import com.studentlife.scoreboard.repository.CategoryRepository;
+import com.studentlife.scoreboard.repository.HabitEntryRepository;
+import com.studentlife.scoreboard.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs hot habit_entries queries and checks with EXPLAIN that H2 answers them from the expected
+ * index rather than a table scan, so a dropped index or a rewritten query fails the build.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class HabitEntryQueryPlanTest {
+
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void imageReferenceLookupsUseFilenameIndex() {
+        habitEntryRepository.countByImageFilename("a.png");
+        assertUsesIndex("idx_habit_entries_image_filename");
+
+        habitEntryRepository.findReferencedImageFilenames(List.of("a.png", "b.png"));
+        assertUsesIndex("idx_habit_entries_image_filename");
+    }
+
+    @Test
+    void keysetPagesUseUserIndexes() {
+        User user = userRepository.findByUsername("plans")
+                .orElseGet(() -> userRepository.save(new User("plans", "secret1")));
+        Category category = categoryRepository.findByName("STUDY").orElseThrow();
+        LocalDate today = LocalDate.now();
+        PageRequest page = PageRequest.ofSize(20);
+
+        habitEntryRepository.findPageByUser(user, today, Long.MAX_VALUE, page);
+        assertUsesIndex("idx_habit_entries_user_date_id");
+
+        habitEntryRepository.findPageByUserAndDateRange(user, today.minusDays(30), today, today, Long.MAX_VALUE, page);
+        assertUsesIndex("idx_habit_entries_user_date_id");
+
+        habitEntryRepository.findPageByUserAndCategory(user, category, today, Long.MAX_VALUE, page);
+        assertUsesIndex("idx_habit_entries_user_category_date");
+
+        habitEntryRepository.findPageByUserAndCategoryAndDateRange(user, category, today.minusDays(30), today,
+                today, Long.MAX_VALUE, page);
+        assertUsesIndex("idx_habit_entries_user_category_date");
+    }
+
+    private void assertUsesIndex(String index) {
+        String sql = RecordingStatementInspector.lastStatement();
+        // Parameters stay unbound; H2 plans them as placeholders
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toLowerCase();
+        assertTrue(plan.contains(index), () -> "Expected " + index + " in the plan of " + sql + ":\n" + plan);
+        assertFalse(plan.contains("tablescan"), () -> "Table scan in the plan of " + sql + ":\n" + plan);
+    }
+}
@@ -0,0 +1,22 @@
+package com.studentlife.scoreboard;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Remembers the last SQL statement Hibernate prepared on the current thread,
+ * so tests can inspect the plan of the query a repository method really runs.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<String> LAST = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        LAST.set(sql);
+        return sql;
+    }
+
+    public static String lastStatement() {
+        return LAST.get();
+    }
+}
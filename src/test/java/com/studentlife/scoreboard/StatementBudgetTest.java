@@ -0,0 +1,175 @@
+package com.studentlife.scoreboard;
+
+import com.studentlife.scoreboard.entity.Category;
+import com.studentlife.scoreboard.entity.HabitEntry;
+import com.studentlife.scoreboard.entity.User;
+import com.studentlife.scoreboard.repository.CategoryRepository;
+import com.studentlife.scoreboard.repository.HabitEntryRepository;
+import com.studentlife.scoreboard.repository.UserRepository;
+import com.studentlife.scoreboard.service.StatsWindowCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calls every endpoint with a statement budget (app.db.statement-budget.limits) with budgets
+ * enforced, once with the stats window cache cleared and once warm. A request that runs more
+ * statements than its budget throws, so an added query fails the build.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatementBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private StatsWindowCache statsWindowCache;
+
+    private MockHttpSession session;
+
+    private Category category;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.findByUsername("budget")
+                .orElseGet(() -> userRepository.save(new User("budget", "secret1")));
+        category = categoryRepository.findByName("STUDY").orElseThrow();
+        for (int i = 0; i < 30; i++) {
+            HabitEntry entry = new HabitEntry(category, "Entry " + i, LocalDate.now().minusDays(i % 10), 30 + i);
+            entry.setUser(user);
+            entry.setScore(5);
+            habitEntryRepository.save(entry);
+        }
+
+        UserDetails details = userDetailsService.loadUserByUsername("budget");
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()));
+        session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+    }
+
+    @Test
+    void pagesStayWithinBudget() throws Exception {
+        Long id = newEntryId();
+        List<String> pages = List.of("/", "/dashboard", "/stats", "/stats?range=month", "/stats?range=semester",
+                "/stats?range=year", "/stats/data?startDate=2026-01-01&endDate=2026-03-31&bucket=week",
+                "/entries", "/entries?categoryId=" + category.getId(), "/entries/new", "/entries/" + id + "/edit");
+        for (String page : pages) {
+            coldAndWarm(() -> get(page).session(session), status().isOk());
+        }
+    }
+
+    @Test
+    void writesStayWithinBudget() throws Exception {
+        byte[] image = png();
+        coldAndWarm(() -> multipart("/entries")
+                .file(new MockMultipartFile("image", "photo.png", "image/png", image))
+                .param("categoryId", category.getId().toString())
+                .param("description", "With image")
+                .param("duration", "20")
+                .session(session), status().is3xxRedirection());
+        coldAndWarm(() -> post("/entries")
+                .param("categoryId", category.getId().toString())
+                .param("description", "Plain")
+                .param("duration", "20")
+                .session(session), status().is3xxRedirection());
+
+        for (int i = 0; i < 2; i++) {
+            Long id = newEntryId();
+            coldAndWarm(() -> multipart("/entries/" + id)
+                    .file(new MockMultipartFile("image", "other.png", "image/png", png()))
+                    .param("categoryId", category.getId().toString())
+                    .param("description", "Updated")
+                    .param("duration", "25")
+                    .param("date", LocalDate.now().toString())
+                    .session(session), status().is3xxRedirection());
+            statsWindowCache.invalidateAll();
+            mockMvc.perform(post("/entries/" + id + "/delete").session(session))
+                    .andExpect(status().is3xxRedirection());
+        }
+
+        String[] ids = newEntryIds(5);
+        coldAndWarm(() -> post("/entries/bulk/category").param("ids", ids)
+                .param("categoryId", category.getId().toString()).session(session), status().is3xxRedirection());
+        coldAndWarm(() -> post("/entries/bulk/shift-date").param("ids", ids).param("days", "1")
+                .session(session), status().is3xxRedirection());
+        statsWindowCache.invalidateAll();
+        mockMvc.perform(post("/entries/bulk/delete").param("ids", ids).session(session))
+                .andExpect(status().is3xxRedirection());
+    }
+
+    private void coldAndWarm(Request request, ResultMatcher expected) throws Exception {
+        statsWindowCache.invalidateAll();
+        mockMvc.perform(request.build()).andExpect(expected);
+        mockMvc.perform(request.build()).andExpect(expected);
+    }
+
+    private interface Request {
+        RequestBuilder build() throws Exception;
+    }
+
+    private Long newEntryId() {
+        HabitEntry entry = new HabitEntry(category, "Target", LocalDate.now(), 15);
+        entry.setUser(user);
+        return habitEntryRepository.save(entry).getId();
+    }
+
+    private String[] newEntryIds(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(newEntryId().toString());
+        }
+        return ids.toArray(new String[0]);
+    }
+
+    // A different image on every call, so uploads are not deduplicated away
+    private static byte[] png() throws Exception {
+        BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, (int) System.nanoTime());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
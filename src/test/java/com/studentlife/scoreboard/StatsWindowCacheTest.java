@@ -0,0 +1,90 @@
+package com.studentlife.scoreboard;
+
+import com.studentlife.scoreboard.entity.Category;
+import com.studentlife.scoreboard.entity.HabitEntry;
+import com.studentlife.scoreboard.entity.User;
+import com.studentlife.scoreboard.repository.CategoryRepository;
+import com.studentlife.scoreboard.repository.HabitEntryRepository;
+import com.studentlife.scoreboard.repository.UserRepository;
+import com.studentlife.scoreboard.service.HabitEntryService;
+import com.studentlife.scoreboard.service.StatsWindowCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a window loaded inside a reader's transaction is never cached from a snapshot
+ * older than a write that committed while it was loading.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StatsWindowCacheTest {
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private StatsWindowCache statsWindowCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void writeCommittedAfterReaderSnapshotIsNotCachedStale() throws Exception {
+        User user = userRepository.save(new User("window-race", "secret1"));
+        Category category = categoryRepository.findByName("STUDY").orElseThrow();
+        statsWindowCache.invalidateAll();
+
+        // Repeatable read, as on MySQL: the reader's first statement fixes what it sees
+        TransactionTemplate reader = new TransactionTemplate(transactionManager);
+        reader.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        reader.setReadOnly(true);
+        reader.executeWithoutResult(status -> {
+            habitEntryRepository.findSummariesByUserAndDate(user, LocalDate.now());
+
+            Thread writer = new Thread(() -> {
+                HabitEntry entry = new HabitEntry(category, "Written mid-read", LocalDate.now(), 45);
+                entry.setUser(user);
+                habitEntryService.saveEntry(entry);
+            });
+            writer.start();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+
+            statsWindowCache.get(user);
+        });
+
+        assertEquals(45, habitEntryService.getWeekTotalPoints(user));
+    }
+
+    @Test
+    void dashboardCachesItsWindow() {
+        User user = userRepository.save(new User("window-cached", "secret1"));
+        statsWindowCache.invalidateAll();
+
+        habitEntryService.getDashboardSnapshot(user);
+        long hits = statsWindowCache.getHits();
+        habitEntryService.getDashboardSnapshot(user);
+        assertEquals(hits + 1, statsWindowCache.getHits());
+    }
+}